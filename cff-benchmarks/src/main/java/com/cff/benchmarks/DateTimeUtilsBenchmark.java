@@ -0,0 +1,52 @@
+package com.cff.benchmarks;
+
+import com.cff.common.util.DateTimeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DateTimeUtils.format的默认格式与自定义格式
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeUtilsBenchmark {
+
+    private final LocalDateTime localDateTime = LocalDateTime.of(2024, 5, 20, 13, 14, 15);
+
+    private final Date date = new Date();
+
+    @Benchmark
+    public String formatLocalDateTime() {
+        return DateTimeUtils.format(localDateTime);
+    }
+
+    @Benchmark
+    public String formatLocalDateTimeWithPattern() {
+        return DateTimeUtils.format(localDateTime, "yyyy-MM-dd HH:mm:ss");
+    }
+
+    @Benchmark
+    public String formatDate() {
+        return DateTimeUtils.format(date);
+    }
+
+    @Benchmark
+    public String formatDateWithPattern() {
+        return DateTimeUtils.format(date, "yyyy-MM-dd HH:mm:ss");
+    }
+}
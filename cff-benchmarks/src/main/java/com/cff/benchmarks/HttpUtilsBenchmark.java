@@ -0,0 +1,103 @@
+package com.cff.benchmarks;
+
+import com.cff.common.util.AsyncApacheHttpUtils;
+import com.cff.common.util.JdkHttpUtils;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP工具类对进程内桩服务器的GET和POST请求，只衡量客户端开销和本地回环往返
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class HttpUtilsBenchmark {
+
+    private static final byte[] RESPONSE = "{\"code\":0,\"message\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final String REQUEST = "{\"orderId\":\"A-1001\",\"amount\":100}";
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private String url;
+
+    private AsyncApacheHttpUtils.ClientConfig clientConfig;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/stub", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(RESPONSE);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/stub";
+        clientConfig = AsyncApacheHttpUtils.ClientConfig.builder().key("benchmark").build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public String jdkGet() throws Exception {
+        return JdkHttpUtils.get(url);
+    }
+
+    @Benchmark
+    public String jdkPost() throws Exception {
+        return JdkHttpUtils.post(url, REQUEST);
+    }
+
+    @Benchmark
+    public String apacheGet() throws Exception {
+        return AsyncApacheHttpUtils.getResponseBody(AsyncApacheHttpUtils.getSync(url, null, clientConfig, TIMEOUT_MILLIS));
+    }
+
+    @Benchmark
+    public String apachePost() throws Exception {
+        return AsyncApacheHttpUtils.getResponseBody(
+                AsyncApacheHttpUtils.postSync(url, REQUEST, null, clientConfig, TIMEOUT_MILLIS));
+    }
+}
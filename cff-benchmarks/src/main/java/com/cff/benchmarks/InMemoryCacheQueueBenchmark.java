@@ -0,0 +1,72 @@
+package com.cff.benchmarks;
+
+import com.cff.cache.queue.memory.InMemoryCacheQueue;
+import com.cff.cache.queue.model.Block;
+import com.cff.cache.queue.processor.AbstractCacheQueueProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InMemoryCacheQueue上处理器的生产和消费流程，不依赖Redis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InMemoryCacheQueueBenchmark {
+
+    private static final String BIZ_ID = "benchmarkBiz";
+
+    @Param({"1", "4"})
+    private int concurrency;
+
+    private List<String> tasks;
+
+    private InMemoryCacheQueue<String> cacheQueue;
+
+    @Setup
+    public void setUp() {
+        tasks = new ArrayList<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            tasks.add("task-" + i);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpQueue() {
+        cacheQueue = new InMemoryCacheQueue<>();
+    }
+
+    @Benchmark
+    public long process(Blackhole blackhole) {
+        AbstractCacheQueueProcessor<String> processor = new AbstractCacheQueueProcessor<String>() {
+            @Override
+            public void consumeBlockTasks(Block<String> block) {
+                blackhole.consume(block.getQueue());
+            }
+        };
+        processor.setBizId(BIZ_ID);
+        processor.setCacheQueue(cacheQueue);
+        processor.setConcurrency(concurrency);
+        processor.init(tasks, 100);
+        processor.process();
+        return processor.getProcessedBlockCount();
+    }
+}
@@ -0,0 +1,70 @@
+package com.cff.benchmarks;
+
+import com.cff.common.util.JsonUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonUtils的解析、按路径查找、按节点名查找和合并
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonUtilsBenchmark {
+
+    private String json;
+
+    private Map<String, Object> mergeValue;
+
+    @Setup
+    public void setUp() {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            if (i > 0) {
+                items.append(',');
+            }
+            items.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i)
+                    .append("\",\"price\":").append(i * 1.5).append(",\"tags\":[\"a\",\"b\"]}");
+        }
+        json = "{\"order\":{\"id\":\"A-1001\",\"customer\":{\"name\":\"cff\",\"level\":3},"
+                + "\"items\":[" + items + "]},\"status\":\"PAID\"}";
+        mergeValue = Collections.singletonMap("traceId", "0af7651916cd43dd8448eb211c80319c");
+    }
+
+    @Benchmark
+    public Map<?, ?> parse() throws IOException {
+        return JsonUtils.fromJson(json, Map.class);
+    }
+
+    @Benchmark
+    public JsonNode findNodeByPath() {
+        return JsonUtils.findNode(json, "/order/customer/level");
+    }
+
+    @Benchmark
+    public String findNodeValueByName() throws IOException {
+        return JsonUtils.findNodeValue(json, "level");
+    }
+
+    @Benchmark
+    public String merge() {
+        return JsonUtils.merge(json, "extra", mergeValue);
+    }
+}
@@ -0,0 +1,235 @@
+package com.cff.benchmarks;
+
+import com.cff.cache.queue.autoconfigure.CacheQueueProperties;
+import com.cff.cache.queue.lettuce.BlockLayout;
+import com.cff.cache.queue.lettuce.LettuceCacheQueue;
+import com.cff.cache.queue.lettuce.LettuceConnectionPool;
+import com.cff.cache.queue.model.Block;
+import com.cff.cache.queue.util.CacheQueueConstants;
+import com.cff.cache.queue.util.CacheQueueKeys;
+import com.cff.cache.queue.util.RedisValueUtil;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.support.ConnectionPoolSupport;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LettuceCacheQueue写入批次、领取块并确认的吞吐量和延迟分布，Redis服务在本机随基准测试启动
+ * <p>sharedConnections为0时每次调用从连接池借用连接，大于0时使用共享的多路复用连接。
+ * 连接池最多poolMaxTotal个连接，带Contended后缀的基准使用的线程数是默认连接数的两倍，线程需要排队借用连接。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LettuceCacheQueueBenchmark {
+
+    private static final String BIZ_ID = "benchmark";
+
+    private static final int BLOCK_SIZE = 100;
+
+    /**
+     * 连接池争用场景的线程数，超过连接池的默认连接数
+     */
+    private static final int CONTENDED_THREADS = 16;
+
+    @Param({"1000"})
+    private int items;
+
+    @Param({"LIST", "BLOB"})
+    private BlockLayout layout;
+
+    @Param({"0", "1"})
+    private int sharedConnections;
+
+    @Param({"8"})
+    private int poolMaxTotal;
+
+    private final AtomicLong batchSequence = new AtomicLong();
+
+    private RedisServer redisServer;
+
+    private RedisClient redisClient;
+
+    private GenericObjectPool<StatefulRedisConnection<String, byte[]>> pool;
+
+    private LettuceConnectionPool connectionPool;
+
+    private LettuceCacheQueue<String> cacheQueue;
+
+    private List<String> payload;
+
+    private List<byte[]> payloadBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int port = freePort();
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        redisClient = RedisClient.create(RedisURI.create("localhost", port));
+        GenericObjectPoolConfig<StatefulRedisConnection<String, byte[]>> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(poolMaxTotal);
+        pool = ConnectionPoolSupport.createGenericObjectPool(() -> redisClient.connect(LettuceConnectionPool.CODEC), poolConfig);
+        List<StatefulRedisConnection<String, byte[]>> connections = new ArrayList<>();
+        for (int i = 0; i < sharedConnections; i++) {
+            connections.add(redisClient.connect(LettuceConnectionPool.CODEC));
+        }
+        connectionPool = new LettuceConnectionPool(pool, null, connections);
+
+        CacheQueueProperties.Biz biz = new CacheQueueProperties.Biz();
+        biz.setBizId(BIZ_ID);
+        biz.setBlockSize(BLOCK_SIZE);
+        biz.setBlockLayout(layout);
+        CacheQueueProperties properties = new CacheQueueProperties();
+        properties.setBiz(Collections.singletonList(biz));
+        cacheQueue = new LettuceCacheQueue<>(connectionPool, properties);
+        cacheQueue.loadScripts();
+
+        payload = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            payload.add("task-" + i + "-" + "x".repeat(64));
+        }
+        payloadBytes = new ArrayList<>(items);
+        for (String item : payload) {
+            payloadBytes.add(RedisValueUtil.asBytes(item));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() throws Exception {
+        StatefulRedisConnection<String, byte[]> connection = pool.borrowObject();
+        try {
+            connection.sync().flushall();
+        } finally {
+            pool.returnObject(connection);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        connectionPool.shutdown();
+        pool.close();
+        redisClient.shutdown();
+        redisServer.stop();
+    }
+
+    /**
+     * 写入一个批次的全部块
+     */
+    @Benchmark
+    public void addBatch() {
+        cacheQueue.addBatch(BIZ_ID, nextBatchId(), BLOCK_SIZE, payload);
+    }
+
+    /**
+     * 按管道化之前的方式逐条命令写入一个批次，作为{@link #addBatch()}的对照
+     * <p>批次信息和块信息每个字段一次HSET，每个块单独借用连接，每个任务一次RPUSH；
+     * 任务预先转换为字节，不包含序列化的开销</p>
+     */
+    @Benchmark
+    public void addBatchPerCommand() throws Exception {
+        String batchId = nextBatchId();
+        CacheQueueKeys keys = CacheQueueKeys.STANDALONE;
+        int blockCount = (items + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        StatefulRedisConnection<String, byte[]> connection = pool.borrowObject();
+        try {
+            RedisCommands<String, byte[]> commands = connection.sync();
+            String batchInfoKey = keys.batchInfo(BIZ_ID, batchId);
+            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_BIZ_ID, RedisValueUtil.asBytes(BIZ_ID));
+            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_BATCH_ID, RedisValueUtil.asBytes(batchId));
+            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_BLOCK_SIZE, RedisValueUtil.asBytes(BLOCK_SIZE));
+            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_BLOCK_COUNT, RedisValueUtil.asBytes(blockCount));
+            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_CONSUMED_BLOCK_COUNT, RedisValueUtil.asBytes(0));
+
+            for (int i = 0; i < blockCount; i++) {
+                addBlockPerCommand(batchId, i, payloadBytes.subList(i * BLOCK_SIZE, Math.min((i + 1) * BLOCK_SIZE, items)));
+            }
+            commands.rpush(keys.batches(BIZ_ID), RedisValueUtil.asBytes(batchId));
+        } finally {
+            pool.returnObject(connection);
+        }
+    }
+
+    private void addBlockPerCommand(String batchId, int blockIndex, List<byte[]> block) throws Exception {
+        CacheQueueKeys keys = CacheQueueKeys.STANDALONE;
+        StatefulRedisConnection<String, byte[]> connection = pool.borrowObject();
+        try {
+            RedisCommands<String, byte[]> commands = connection.sync();
+            String blockInfoKey = keys.blockInfo(BIZ_ID, batchId, blockIndex);
+            commands.hset(blockInfoKey, CacheQueueConstants.BLOCK_INDEX, RedisValueUtil.asBytes(blockIndex));
+            commands.hset(blockInfoKey, CacheQueueConstants.BLOCK_CONSUMED, RedisValueUtil.asBytes("false"));
+            String blockDataKey = keys.blockData(BIZ_ID, batchId, blockIndex);
+            for (byte[] item : block) {
+                commands.rpush(blockDataKey, item);
+            }
+            commands.rpush(keys.blocks(BIZ_ID, batchId), RedisValueUtil.asBytes(blockIndex));
+        } finally {
+            pool.returnObject(connection);
+        }
+    }
+
+    /**
+     * 写入一个批次后领取并确认全部块，最后删除批次
+     */
+    @Benchmark
+    public int addClaimAck() {
+        String batchId = nextBatchId();
+        cacheQueue.addBatch(BIZ_ID, batchId, BLOCK_SIZE, payload);
+        int consumed = 0;
+        Block<String> block;
+        while ((block = cacheQueue.nextBlock(BIZ_ID, batchId)) != null) {
+            consumed = cacheQueue.markBlockConsumed(BIZ_ID, batchId, block.getBlockIndex());
+        }
+        cacheQueue.removeBatch(BIZ_ID, batchId);
+        return consumed;
+    }
+
+    /**
+     * 与{@link #addClaimAck()}相同，线程数超过连接池的连接数，连接池模式下线程排队借用连接
+     */
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public int addClaimAckContended() {
+        return addClaimAck();
+    }
+
+    private String nextBatchId() {
+        return "batch-" + batchSequence.incrementAndGet();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
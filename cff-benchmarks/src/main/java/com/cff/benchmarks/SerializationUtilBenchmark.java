@@ -0,0 +1,104 @@
+package com.cff.benchmarks;
+
+import com.cff.cache.queue.util.SerializationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SerializationUtil的JDK序列化往返
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationUtilBenchmark {
+
+    @Param({"1", "100"})
+    private int items;
+
+    private ArrayList<Task> payload;
+
+    private byte[] serialized;
+
+    private String serializedString;
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            payload.add(new Task(i, "task-" + i, System.currentTimeMillis()));
+        }
+        serialized = SerializationUtil.serialize(payload);
+        serializedString = SerializationUtil.serializeToString(payload);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return SerializationUtil.serialize(payload);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        return SerializationUtil.deserialize(serialized);
+    }
+
+    @Benchmark
+    public Object roundTrip() throws IOException, ClassNotFoundException {
+        return SerializationUtil.deserialize(SerializationUtil.serialize(payload));
+    }
+
+    @Benchmark
+    public Object stringRoundTrip() throws IOException, ClassNotFoundException {
+        return SerializationUtil.deserializeFromString(SerializationUtil.serializeToString(payload));
+    }
+
+    @Benchmark
+    public Object deserializeFromString() throws IOException, ClassNotFoundException {
+        return SerializationUtil.deserializeFromString(serializedString);
+    }
+
+    public static class Task implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int id;
+
+        private final String name;
+
+        private final long createTime;
+
+        public Task(int id, String name, long createTime) {
+            this.id = id;
+            this.name = name;
+            this.createTime = createTime;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCreateTime() {
+            return createTime;
+        }
+    }
+}
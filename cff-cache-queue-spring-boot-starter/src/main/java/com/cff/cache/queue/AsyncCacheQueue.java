@@ -0,0 +1,93 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.model.Batch;
+import com.cff.cache.queue.model.Block;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 异步缓存队列，方法不阻塞调用线程，操作完成后结果通过CompletionStage返回
+ * <p>操作失败时CompletionStage以CacheQueueException异常完成</p>
+ */
+public interface AsyncCacheQueue<E extends Serializable> {
+
+    /**
+     * 获取下一个批次
+     * @param bizId 业务ID
+     * @return 下一个批次，没有批次时为null
+     */
+    CompletionStage<Batch<E>> nextBatch(String bizId);
+
+    /**
+     * 获取下一个块
+     * @param bizId 业务ID
+     * @param batchId 批次ID
+     * @return 下一个块，没有块时为null
+     */
+    CompletionStage<Block<E>> nextBlock(String bizId, String batchId);
+
+    /**
+     * 添加批次
+     * @param bizId 业务ID
+     * @param batchId 批次ID
+     * @param blockSize 块大小
+     * @param list 任务列表
+     * @return 批次的全部数据写入完成
+     */
+    CompletionStage<Void> addBatch(String bizId, String batchId, Integer blockSize, List<E> list);
+
+    /**
+     * 添加块
+     * @param bizId 业务ID
+     * @param batchId 批次ID
+     * @param blockIndex 块索引
+     * @param list 任务列表
+     * @return 块的全部数据写入完成
+     */
+    CompletionStage<Void> addBlock(String bizId, String batchId, Integer blockIndex, List<E> list);
+
+    /**
+     * 标记块为已消费
+     * @param bizId 业务ID
+     * @param batchId 批次ID
+     * @param blockIndex 块索引
+     * @return 标记后批次的已消费块数，块已被标记过时不重复计数
+     */
+    CompletionStage<Integer> markBlockConsumed(String bizId, String batchId, Integer blockIndex);
+
+    /**
+     * 获取批次信息
+     * @param bizId 业务ID
+     * @param batchId 批次ID
+     * @return 批次信息，批次不存在时为null
+     */
+    CompletionStage<Batch<E>> getBatch(String bizId, String batchId);
+
+    /**
+     * 获取块信息
+     * @param bizId 业务ID
+     * @param batchId 批次ID
+     * @param blockIndex 块索引
+     * @return 块信息
+     */
+    CompletionStage<Block<E>> getBlock(String bizId, String batchId, Integer blockIndex);
+
+    /**
+     * 删除批次
+     * @param bizId 业务ID
+     * @param batchId 批次ID
+     * @return 批次删除完成
+     */
+    CompletionStage<Void> removeBatch(String bizId, String batchId);
+
+    /**
+     * 删除块
+     * @param bizId 业务ID
+     * @param batchId 批次ID
+     * @param blockIndex 块索引
+     * @return 块删除完成
+     */
+    CompletionStage<Void> removeBlock(String bizId, String batchId, Integer blockIndex);
+}
@@ -5,7 +5,12 @@ import com.cff.cache.queue.model.Batch;
 import com.cff.cache.queue.model.Block;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
 
 public interface CacheQueue<E extends Serializable> {
 
@@ -17,6 +22,15 @@ public interface CacheQueue<E extends Serializable> {
      */
     Batch<E> nextBatch(String bizId) throws CacheQueueException;
 
+    /**
+     * 阻塞等待下一个批次，批次入队后立即返回
+     * @param bizId 业务ID
+     * @param timeoutMillis 最长等待时间（毫秒），0为一直等待
+     * @return 下一个批次，等待超时返回null
+     * @throws CacheQueueException 缓存队列异常
+     */
+    Batch<E> awaitBatch(String bizId, long timeoutMillis) throws CacheQueueException;
+
     /**
      * 获取下一个块
      * @param bizId 业务ID
@@ -36,6 +50,38 @@ public interface CacheQueue<E extends Serializable> {
      */
     void addBatch(String bizId, String batchId, Integer blockSize, List<E> list) throws CacheQueueException;
 
+    /**
+     * 添加批次，从迭代器中按块读取任务，不需要先将全部任务加载到列表中
+     * <p>默认实现先将全部任务收集到列表中再添加；基于Redis的实现每凑满一个块就写入，内存占用约为一个块，
+     * 全部块写入后批次才对消费者可见。</p>
+     * @param bizId 业务ID
+     * @param batchId 批次ID
+     * @param blockSize 块大小
+     * @param iterator 任务迭代器
+     * @throws CacheQueueException 缓存队列异常
+     */
+    default void addBatch(String bizId, String batchId, Integer blockSize, Iterator<E> iterator) throws CacheQueueException {
+        List<E> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        addBatch(bizId, batchId, blockSize, list);
+    }
+
+    /**
+     * 添加批次，从可分割迭代器中按块读取任务
+     * @see #addBatch(String, String, Integer, Iterator)
+     */
+    default void addBatch(String bizId, String batchId, Integer blockSize, Spliterator<E> spliterator) throws CacheQueueException {
+        addBatch(bizId, batchId, blockSize, Spliterators.iterator(spliterator));
+    }
+
+    /**
+     * 添加批次，从流中按块读取任务，流由调用方关闭
+     * @see #addBatch(String, String, Integer, Iterator)
+     */
+    default void addBatch(String bizId, String batchId, Integer blockSize, Stream<E> stream) throws CacheQueueException {
+        addBatch(bizId, batchId, blockSize, stream.iterator());
+    }
+
     /**
      * 添加块
      * @param bizId 业务ID
@@ -51,9 +97,10 @@ public interface CacheQueue<E extends Serializable> {
      * @param bizId 业务ID
      * @param batchId 批次ID
      * @param blockIndex 块索引
+     * @return 标记后批次的已消费块数，块已被标记过时不重复计数
      * @throws CacheQueueException 缓存队列异常
      */
-    void markBlockConsumed(String bizId, String batchId, Integer blockIndex) throws CacheQueueException;
+    Integer markBlockConsumed(String bizId, String batchId, Integer blockIndex) throws CacheQueueException;
     
     /**
      * 获取批次信息
@@ -0,0 +1,26 @@
+package com.cff.cache.queue;
+
+/**
+ * 缓存队列序列化监听器，用于统计任务序列化和反序列化的数量、字节数和耗时
+ * <p>回调在执行队列操作的线程中同步执行，实现需要足够轻量</p>
+ */
+public interface CacheQueueCodecListener {
+
+    /**
+     * 任务序列化完成
+     * @param bizId 业务ID
+     * @param items 任务数
+     * @param bytes 序列化后的字节数，不含压缩
+     * @param nanos 序列化耗时
+     */
+    void itemsSerialized(String bizId, int items, long bytes, long nanos);
+
+    /**
+     * 任务反序列化完成
+     * @param bizId 业务ID
+     * @param items 任务数
+     * @param bytes 从Redis读取的字节数
+     * @param nanos 解压和反序列化耗时
+     */
+    void itemsDeserialized(String bizId, int items, long bytes, long nanos);
+}
@@ -0,0 +1,22 @@
+package com.cff.cache.queue;
+
+/**
+ * CacheQueue实现类型
+ */
+public enum CacheQueueType {
+
+    /**
+     * 使用列表保存块队列，对应LettuceCacheQueue
+     */
+    LIST,
+
+    /**
+     * 使用Redis Streams和消费者组保存块队列，对应LettuceStreamCacheQueue
+     */
+    STREAM,
+
+    /**
+     * 在当前进程内存中保存批次和块，不访问Redis，对应InMemoryCacheQueue
+     */
+    MEMORY
+}
@@ -1,39 +1,93 @@
 package com.cff.cache.queue.autoconfigure;
 
+import com.cff.cache.queue.AsyncCacheQueue;
 import com.cff.cache.queue.CacheQueue;
+import com.cff.cache.queue.CacheQueueCodecListener;
+import com.cff.cache.queue.CacheQueueType;
+import com.cff.cache.queue.ReactiveCacheQueue;
+import com.cff.cache.queue.buffer.WriteBehindCacheQueue;
+import com.cff.cache.queue.compress.BlockCompressor;
+import com.cff.cache.queue.compress.BlockCompressorRegistry;
+import com.cff.cache.queue.compress.Lz4BlockCompressor;
+import com.cff.cache.queue.lettuce.LettuceAsyncCacheQueue;
 import com.cff.cache.queue.lettuce.LettuceCacheQueue;
 import com.cff.cache.queue.lettuce.LettuceConnectionPool;
+import com.cff.cache.queue.lettuce.LettuceReactiveCacheQueue;
+import com.cff.cache.queue.lettuce.LettuceStreamCacheQueue;
+import com.cff.cache.queue.memory.InMemoryCacheQueue;
+import com.cff.cache.queue.metrics.BlockCompressionMetrics;
+import com.cff.cache.queue.metrics.CacheQueueProcessorMetrics;
+import com.cff.cache.queue.metrics.LettuceConnectionPoolMetrics;
+import com.cff.cache.queue.metrics.MeteredCacheQueue;
+import com.cff.cache.queue.processor.AbstractCacheQueueProcessor;
+import com.cff.cache.queue.serializer.CacheQueueSerializer;
+import com.cff.cache.queue.serializer.CacheQueueSerializerRegistry;
+import com.cff.cache.queue.serializer.JacksonCacheQueueSerializer;
+import com.cff.cache.queue.serializer.KryoCacheQueueSerializer;
+import com.cff.cache.queue.serializer.SmileCacheQueueSerializer;
+import com.cff.cache.queue.shard.ShardedCacheQueue;
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
 import io.lettuce.core.SocketOptions;
 import io.lettuce.core.TimeoutOptions;
-import io.lettuce.core.api.StatefulRedisConnection;
-import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.resource.ClientResources;
 import io.lettuce.core.resource.DefaultClientResources;
 import io.lettuce.core.support.ConnectionPoolSupport;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.ClassUtils;
 
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
-@AutoConfiguration
+@AutoConfiguration(afterName = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
 @ConditionalOnClass({RedisClient.class})
 @EnableConfigurationProperties(CacheQueueProperties.class)
 public class CacheQueueAutoConfiguration {
 
+    /**
+     * 队列类型不是MEMORY时才创建Redis客户端、连接池和Lettuce实现的队列
+     */
+    private static final String REDIS_TYPE_CONDITION = "!'${cff.cache.queue.config.type:LIST}'.equalsIgnoreCase('MEMORY')";
+
+    /**
+     * 使用Redis且未开启分片时才创建默认的Redis客户端和连接池，分片使用各自的客户端和连接池
+     */
+    private static final String UNSHARDED_REDIS_CONDITION = REDIS_TYPE_CONDITION
+            + " and !${cff.cache.queue.config.sharding.enabled:false}";
+
     @Autowired
     private CacheQueueProperties cacheQueueProperties;
 
     @Bean
     @ConditionalOnMissingBean
+    @ConditionalOnExpression(UNSHARDED_REDIS_CONDITION)
+    @ConditionalOnProperty(prefix = "cff.cache.queue.config.cluster", name = "enabled", havingValue = "false", matchIfMissing = true)
     public RedisClient redisClient() {
         CacheQueueProperties.Config config = cacheQueueProperties.getConfig();
         if (config == null) {
@@ -48,45 +102,105 @@ public class CacheQueueAutoConfiguration {
         }
 
         CacheQueueProperties.Pool pool = config.getPool();
+        RedisClient redisClient = RedisClient.create(clientResources(pool), builder.build());
+        redisClient.setOptions(clientOptions(pool));
+        return redisClient;
+    }
 
-        DefaultClientResources clientResources = DefaultClientResources.builder()
-                .ioThreadPoolSize(pool.getIoThreadPoolSize())
-                .computationThreadPoolSize(pool.getComputationThreadPoolSize())
+    /**
+     * Redis Cluster客户端，命令按键的槽路由到对应的节点，节点变化时自动刷新拓扑
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnExpression(UNSHARDED_REDIS_CONDITION)
+    @ConditionalOnProperty(prefix = "cff.cache.queue.config.cluster", name = "enabled", havingValue = "true")
+    public RedisClusterClient redisClusterClient() {
+        CacheQueueProperties.Config config = cacheQueueProperties.getConfig();
+        CacheQueueProperties.Cluster cluster = config.getCluster();
+        if (cluster.getNodes() == null || cluster.getNodes().isEmpty()) {
+            throw new IllegalArgumentException("cff.cache.queue.config.cluster.nodes must not be empty");
+        }
+
+        List<RedisURI> nodes = new ArrayList<>();
+        for (String node : cluster.getNodes()) {
+            // 节点格式为host:port，省略端口时使用6379
+            int separator = node.lastIndexOf(':');
+            RedisURI.Builder builder = separator > 0
+                    ? RedisURI.Builder.redis(node.substring(0, separator).trim(),
+                            Integer.parseInt(node.substring(separator + 1).trim()))
+                    : RedisURI.Builder.redis(node.trim());
+            if (config.getPassword() != null && !config.getPassword().isEmpty()) {
+                builder.withPassword(config.getPassword().toCharArray());
+            }
+            nodes.add(builder.build());
+        }
+
+        CacheQueueProperties.Pool pool = config.getPool();
+        RedisClusterClient redisClusterClient = RedisClusterClient.create(clientResources(pool), nodes);
+
+        // 收到MOVED、ASK重定向或连接断开时刷新拓扑，另外可以定期刷新
+        ClusterTopologyRefreshOptions.Builder topologyRefreshOptions = ClusterTopologyRefreshOptions.builder()
+                .enableAllAdaptiveRefreshTriggers();
+        if (cluster.getTopologyRefreshPeriodMillis() > 0) {
+            topologyRefreshOptions.enablePeriodicRefresh(Duration.ofMillis(cluster.getTopologyRefreshPeriodMillis()));
+        }
+
+        ClusterClientOptions clientOptions = ClusterClientOptions.builder()
+                .socketOptions(socketOptions(pool))
+                .autoReconnect(true)
+                .pingBeforeActivateConnection(true)
+                .timeoutOptions(TimeoutOptions.enabled(Duration.ofMillis(pool.getTimeoutMillis())))
+                .maxRedirects(cluster.getMaxRedirects())
+                .topologyRefreshOptions(topologyRefreshOptions.build())
                 .build();
-        RedisClient redisClient = RedisClient.create(clientResources, builder.build());
 
-        // 全局设置ClientOptions
-        // 创建 SocketOptions
-        SocketOptions socketOptions = SocketOptions.builder()
-                // 连接超时
-                .connectTimeout(Duration.ofMillis(pool.getConnectTimeoutMillis()))
-                .keepAlive(pool.isKeepAlive())
-                .tcpNoDelay(pool.isTcpNoDelay())
+        redisClusterClient.setOptions(clientOptions);
+        return redisClusterClient;
+    }
+
+    private ClientResources clientResources(CacheQueueProperties.Pool pool) {
+        return DefaultClientResources.builder()
+                .ioThreadPoolSize(pool.getIoThreadPoolSize())
+                .computationThreadPoolSize(pool.getComputationThreadPoolSize())
                 .build();
+    }
 
+    private ClientOptions clientOptions(CacheQueueProperties.Pool pool) {
         // 创建 ClientOptions 并设置 SocketOptions
-        ClientOptions clientOptions = ClientOptions.builder()
-                .socketOptions(socketOptions)
+        return ClientOptions.builder()
+                .socketOptions(socketOptions(pool))
                 // 自动重连
                 .autoReconnect(true)
                 .pingBeforeActivateConnection(true)
                 //.. Redis 命令设置统一的超时控制机制
                 .timeoutOptions(TimeoutOptions.enabled(Duration.ofMillis(pool.getTimeoutMillis())))
                 .build();
+    }
 
-        redisClient.setOptions(clientOptions);
-        return redisClient;
+    private SocketOptions socketOptions(CacheQueueProperties.Pool pool) {
+        return SocketOptions.builder()
+                // 连接超时
+                .connectTimeout(Duration.ofMillis(pool.getConnectTimeoutMillis()))
+                .keepAlive(pool.isKeepAlive())
+                .tcpNoDelay(pool.isTcpNoDelay())
+                .build();
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public LettuceConnectionPool lettuceConnectionPool(RedisClient redisClient) {
+    @ConditionalOnExpression(UNSHARDED_REDIS_CONDITION)
+    public LettuceConnectionPool lettuceConnectionPool(ObjectProvider<RedisClient> redisClient,
+                                                       ObjectProvider<RedisClusterClient> redisClusterClient) {
+        return connectionPool(connector(redisClient, redisClusterClient), cacheQueueProperties.getConfig());
+    }
+
+    private LettuceConnectionPool connectionPool(Supplier<StatefulConnection<String, byte[]>> connector,
+                                                 CacheQueueProperties.Config config) {
         // 创建连接池配置
-        GenericObjectPoolConfig<StatefulRedisConnection<String, String>> poolConfig = 
+        GenericObjectPoolConfig<StatefulConnection<String, byte[]>> poolConfig = 
             new GenericObjectPoolConfig<>();
         
         // 获取配置中的连接池设置
-        CacheQueueProperties.Config config = cacheQueueProperties.getConfig();
         if (config != null && config.getPool() != null) {
             CacheQueueProperties.Pool pool = config.getPool();
             
@@ -105,14 +219,290 @@ public class CacheQueueAutoConfiguration {
             }
         }
 
-        GenericObjectPool<StatefulRedisConnection<String, String>> pool =
-                ConnectionPoolSupport.createGenericObjectPool(() -> redisClient.connect(StringCodec.UTF8), poolConfig);
-        return new LettuceConnectionPool(pool);
+        GenericObjectPool<StatefulConnection<String, byte[]>> pool =
+                ConnectionPoolSupport.createGenericObjectPool(connector, poolConfig);
+
+        // 阻塞命令使用独立的连接池，等待期间不占用普通连接
+        GenericObjectPoolConfig<StatefulConnection<String, byte[]>> blockingPoolConfig =
+            new GenericObjectPoolConfig<>();
+        blockingPoolConfig.setMinIdle(0);
+        if (config != null && config.getPool() != null && config.getPool().getBlockingMaxTotal() > 0) {
+            blockingPoolConfig.setMaxTotal(config.getPool().getBlockingMaxTotal());
+            blockingPoolConfig.setMaxIdle(config.getPool().getBlockingMaxTotal());
+        }
+        GenericObjectPool<StatefulConnection<String, byte[]>> blockingPool =
+                ConnectionPoolSupport.createGenericObjectPool(connector, blockingPoolConfig);
+
+        // 共享模式下非阻塞命令使用固定数量的多路复用连接，连接池只用于管道写入
+        List<StatefulConnection<String, byte[]>> sharedConnections = new ArrayList<>();
+        int sharedConnectionCount = config != null && config.getPool() != null ? config.getPool().getSharedConnections() : 0;
+        for (int i = 0; i < sharedConnectionCount; i++) {
+            sharedConnections.add(connector.get());
+        }
+        return new LettuceConnectionPool(pool, blockingPool, sharedConnections);
+    }
+
+    /**
+     * 创建连接，开启集群时连接Redis Cluster，否则连接单个Redis
+     */
+    private Supplier<StatefulConnection<String, byte[]>> connector(ObjectProvider<RedisClient> redisClient,
+                                                                   ObjectProvider<RedisClusterClient> redisClusterClient) {
+        RedisClusterClient clusterClient = redisClusterClient.getIfAvailable();
+        if (clusterClient != null) {
+            return () -> clusterClient.connect(LettuceConnectionPool.CODEC);
+        }
+        RedisClient client = redisClient.getObject();
+        return () -> client.connect(LettuceConnectionPool.CODEC);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheQueueSerializerRegistry cacheQueueSerializerRegistry(ObjectProvider<CacheQueueSerializer> serializers) {
+        CacheQueueSerializerRegistry registry = new CacheQueueSerializerRegistry();
+
+        // 按类路径注册内置的可选序列化器
+        ClassLoader classLoader = getClass().getClassLoader();
+        boolean jacksonPresent = ClassUtils.isPresent("com.cff.common.util.JsonUtils", classLoader)
+                && ClassUtils.isPresent("com.fasterxml.jackson.databind.ObjectMapper", classLoader);
+        if (jacksonPresent) {
+            registry.register(JacksonCacheQueueSerializer.json());
+        }
+        if (jacksonPresent && ClassUtils.isPresent("com.fasterxml.jackson.dataformat.smile.SmileFactory", classLoader)) {
+            registry.register(new SmileCacheQueueSerializer());
+        }
+        if (ClassUtils.isPresent("com.esotericsoftware.kryo.Kryo", classLoader)) {
+            CacheQueueProperties.Config config = cacheQueueProperties.getConfig();
+            registry.register(new KryoCacheQueueSerializer(config != null ? config.getSerializerClasses() : null));
+        }
+
+        // 注册自定义序列化器
+        serializers.orderedStream().forEach(registry::register);
+        return registry;
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public CacheQueue<Serializable> lettuceCacheQueue(LettuceConnectionPool connectionPool) {
-        return new LettuceCacheQueue<>(connectionPool);
+    public BlockCompressorRegistry blockCompressorRegistry(ObjectProvider<BlockCompressor> compressors) {
+        BlockCompressorRegistry registry = new BlockCompressorRegistry();
+
+        // 按类路径注册内置的可选压缩器
+        if (ClassUtils.isPresent("net.jpountz.lz4.LZ4Factory", getClass().getClassLoader())) {
+            registry.register(new Lz4BlockCompressor());
+        }
+
+        // 注册自定义压缩器
+        compressors.orderedStream().forEach(registry::register);
+        return registry;
+    }
+
+    /**
+     * 客户端分片的缓存队列，每个分片使用独立的Redis客户端和连接池，按一致性哈希分布批次
+     */
+    @Bean
+    @ConditionalOnMissingBean(ignoredType = "com.cff.cache.queue.metrics.MeteredCacheQueue")
+    @ConditionalOnExpression(REDIS_TYPE_CONDITION)
+    @ConditionalOnProperty(prefix = "cff.cache.queue.config.sharding", name = "enabled", havingValue = "true")
+    public CacheQueue<Serializable> shardedCacheQueue(CacheQueueSerializerRegistry serializerRegistry,
+                                                      BlockCompressorRegistry compressorRegistry) {
+        CacheQueueProperties.Config config = cacheQueueProperties.getConfig();
+        CacheQueueProperties.Sharding sharding = config.getSharding();
+        if (sharding.getShards() == null || sharding.getShards().isEmpty()) {
+            throw new IllegalArgumentException("cff.cache.queue.config.sharding.shards must not be empty");
+        }
+
+        CacheQueueProperties.Pool pool = config.getPool();
+        ClientResources clientResources = clientResources(pool);
+        Map<String, CacheQueue<Serializable>> shards = new LinkedHashMap<>();
+        List<AutoCloseable> resources = new ArrayList<>();
+        for (CacheQueueProperties.Shard shard : sharding.getShards()) {
+            // 分片名称决定哈希环上的位置，未配置时使用host:port
+            String name = shard.getName() != null && !shard.getName().isEmpty()
+                    ? shard.getName() : shard.getHost() + ":" + shard.getPort();
+            if (shards.containsKey(name)) {
+                throw new IllegalArgumentException("Duplicate cache queue shard " + name);
+            }
+
+            RedisURI.Builder builder = RedisURI.Builder.redis(shard.getHost(), shard.getPort());
+            String password = shard.getPassword() != null ? shard.getPassword() : config.getPassword();
+            if (password != null && !password.isEmpty()) {
+                builder.withPassword(password.toCharArray());
+            }
+            RedisClient client = RedisClient.create(clientResources, builder.build());
+            client.setOptions(clientOptions(pool));
+
+            LettuceConnectionPool connectionPool = connectionPool(() -> client.connect(LettuceConnectionPool.CODEC), config);
+            connectionPool.setName(LettuceConnectionPool.DEFAULT_NAME + "-" + name);
+            shards.put(name, config.getType() == CacheQueueType.STREAM
+                    ? new LettuceStreamCacheQueue<>(connectionPool, cacheQueueProperties, serializerRegistry, compressorRegistry)
+                    : new LettuceCacheQueue<>(connectionPool, cacheQueueProperties, serializerRegistry, compressorRegistry));
+
+            resources.add(connectionPool::shutdown);
+            resources.add(connectionPool.getObjectPool());
+            if (connectionPool.getBlockingObjectPool() != null) {
+                resources.add(connectionPool.getBlockingObjectPool());
+            }
+            resources.add(client::shutdown);
+        }
+        resources.add(clientResources::shutdown);
+
+        ShardedCacheQueue<Serializable> cacheQueue =
+                new ShardedCacheQueue<>(shards, sharding.getRouting(), sharding.getVirtualNodes());
+        resources.forEach(cacheQueue::addResource);
+        if (config.getWriteBehind() != null && config.getWriteBehind().isEnabled()) {
+            return new WriteBehindCacheQueue<>(cacheQueue, config.getWriteBehind());
+        }
+        return cacheQueue;
+    }
+
+    @Bean
+    // 指标装饰器包装的是本Bean，不视为用户自定义的CacheQueue
+    @ConditionalOnMissingBean(ignoredType = "com.cff.cache.queue.metrics.MeteredCacheQueue")
+    @ConditionalOnExpression(REDIS_TYPE_CONDITION)
+    @ConditionalOnProperty(prefix = "cff.cache.queue.config.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public CacheQueue<Serializable> lettuceCacheQueue(LettuceConnectionPool connectionPool,
+                                                      CacheQueueSerializerRegistry serializerRegistry,
+                                                      BlockCompressorRegistry compressorRegistry) {
+        CacheQueueProperties.Config config = cacheQueueProperties.getConfig();
+        LettuceCacheQueue<Serializable> cacheQueue;
+        if (config != null && config.getType() == CacheQueueType.STREAM) {
+            cacheQueue = new LettuceStreamCacheQueue<>(connectionPool, cacheQueueProperties, serializerRegistry, compressorRegistry);
+        } else {
+            cacheQueue = new LettuceCacheQueue<>(connectionPool, cacheQueueProperties, serializerRegistry, compressorRegistry);
+        }
+        if (config != null && config.getWriteBehind() != null && config.getWriteBehind().isEnabled()) {
+            // 生命周期由写缓冲装饰器转发给被装饰的队列
+            return new WriteBehindCacheQueue<>(cacheQueue, config.getWriteBehind());
+        }
+        return cacheQueue;
+    }
+
+    /**
+     * 进程内缓存队列，不创建Redis客户端和连接池
+     */
+    @Bean
+    @ConditionalOnMissingBean(ignoredType = "com.cff.cache.queue.metrics.MeteredCacheQueue")
+    @ConditionalOnProperty(prefix = "cff.cache.queue.config", name = "type", havingValue = "MEMORY")
+    public CacheQueue<Serializable> inMemoryCacheQueue() {
+        return new InMemoryCacheQueue<>();
+    }
+
+    /**
+     * 异步缓存队列，需要显式开启，与同步的缓存队列共用序列化和编码配置，使用独立的多路复用连接
+     * <p>连接在第一次操作时建立。仅支持未分片的列表结构块队列。</p>
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "cff.cache.queue.config.async", name = "enabled", havingValue = "true")
+    public AsyncCacheQueue<Serializable> lettuceAsyncCacheQueue(ObjectProvider<RedisClient> redisClient,
+                                                                ObjectProvider<RedisClusterClient> redisClusterClient,
+                                                                @Qualifier("lettuceCacheQueue") ObjectProvider<CacheQueue<Serializable>> cacheQueue) {
+        // 使用未经指标装饰的队列，只复用其序列化和编码逻辑
+        LettuceCacheQueue<Serializable> lettuceCacheQueue = unwrapLettuceCacheQueue(cacheQueue.getIfAvailable());
+        if (lettuceCacheQueue == null || lettuceCacheQueue instanceof LettuceStreamCacheQueue) {
+            throw new IllegalStateException("Async cache queue requires an unsharded LettuceCacheQueue with type LIST");
+        }
+        return new LettuceAsyncCacheQueue<>(lettuceCacheQueue, connector(redisClient, redisClusterClient));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "cff.cache.queue.config.async", name = "enabled", havingValue = "true")
+    public ReactiveCacheQueue<Serializable> lettuceReactiveCacheQueue(AsyncCacheQueue<Serializable> asyncCacheQueue) {
+        return new LettuceReactiveCacheQueue<>(asyncCacheQueue);
+    }
+
+    /**
+     * 获取写缓冲内部的LettuceCacheQueue，不是Lettuce实现时返回null
+     */
+    private static LettuceCacheQueue<Serializable> unwrapLettuceCacheQueue(CacheQueue<Serializable> cacheQueue) {
+        if (cacheQueue instanceof WriteBehindCacheQueue) {
+            return unwrapLettuceCacheQueue(((WriteBehindCacheQueue<Serializable>) cacheQueue).getDelegate());
+        }
+        return cacheQueue instanceof LettuceCacheQueue ? (LettuceCacheQueue<Serializable>) cacheQueue : null;
+    }
+
+    /**
+     * 类路径上存在Micrometer时发布连接池指标
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class CacheQueueMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnExpression(UNSHARDED_REDIS_CONDITION)
+        public LettuceConnectionPoolMetrics lettuceConnectionPoolMetrics(LettuceConnectionPool connectionPool) {
+            return new LettuceConnectionPoolMetrics(connectionPool);
+        }
+
+        /**
+         * 开启分片时发布各分片的连接池指标，pool标签为分片连接池的名称
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "cff.cache.queue.config.sharding", name = "enabled", havingValue = "true")
+        public LettuceConnectionPoolMetrics shardConnectionPoolMetrics(
+                @Qualifier("shardedCacheQueue") ObjectProvider<CacheQueue<Serializable>> cacheQueue) {
+            List<LettuceConnectionPool> connectionPools = new ArrayList<>();
+            addShardConnectionPools(cacheQueue.getIfAvailable(), connectionPools);
+            return new LettuceConnectionPoolMetrics(connectionPools);
+        }
+
+        /**
+         * 获取写缓冲装饰器和分片内部的LettuceCacheQueue使用的连接池
+         */
+        private static void addShardConnectionPools(CacheQueue<Serializable> cacheQueue, List<LettuceConnectionPool> connectionPools) {
+            if (cacheQueue instanceof WriteBehindCacheQueue) {
+                addShardConnectionPools(((WriteBehindCacheQueue<Serializable>) cacheQueue).getDelegate(), connectionPools);
+            } else if (cacheQueue instanceof ShardedCacheQueue) {
+                for (CacheQueue<Serializable> shard : ((ShardedCacheQueue<Serializable>) cacheQueue).getShards().values()) {
+                    addShardConnectionPools(shard, connectionPools);
+                }
+            } else if (cacheQueue instanceof LettuceCacheQueue) {
+                connectionPools.add(((LettuceCacheQueue<Serializable>) cacheQueue).getConnectionPool());
+            }
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public BlockCompressionMetrics blockCompressionMetrics(BlockCompressorRegistry blockCompressorRegistry) {
+            return new BlockCompressionMetrics(blockCompressorRegistry);
+        }
+
+        /**
+         * 开启操作指标后，包装CacheQueue并作为首选的CacheQueue注入
+         */
+        @Bean
+        @Primary
+        @ConditionalOnBean(MeterRegistry.class)
+        @ConditionalOnProperty(prefix = "cff.cache.queue.config", name = "metrics-enabled", havingValue = "true")
+        public MeteredCacheQueue<Serializable> meteredCacheQueue(CacheQueue<Serializable> lettuceCacheQueue,
+                                                                 MeterRegistry meterRegistry) {
+            MeteredCacheQueue<Serializable> meteredCacheQueue = new MeteredCacheQueue<>(lettuceCacheQueue, meterRegistry);
+            // 统计序列化与网络往返各自的耗时
+            setCodecListener(lettuceCacheQueue, meteredCacheQueue);
+            return meteredCacheQueue;
+        }
+
+        /**
+         * 为装饰器和分片内部的LettuceCacheQueue设置编解码监听器
+         */
+        private static void setCodecListener(CacheQueue<Serializable> cacheQueue, CacheQueueCodecListener codecListener) {
+            if (cacheQueue instanceof WriteBehindCacheQueue) {
+                setCodecListener(((WriteBehindCacheQueue<Serializable>) cacheQueue).getDelegate(), codecListener);
+            } else if (cacheQueue instanceof ShardedCacheQueue) {
+                for (CacheQueue<Serializable> shard : ((ShardedCacheQueue<Serializable>) cacheQueue).getShards().values()) {
+                    setCodecListener(shard, codecListener);
+                }
+            } else if (cacheQueue instanceof LettuceCacheQueue) {
+                ((LettuceCacheQueue<Serializable>) cacheQueue).setCodecListener(codecListener);
+            }
+        }
+
+        @Bean
+        @ConditionalOnProperty(prefix = "cff.cache.queue.config", name = "metrics-enabled", havingValue = "true")
+        public CacheQueueProcessorMetrics cacheQueueProcessorMetrics(ObjectProvider<AbstractCacheQueueProcessor<?>> processors) {
+            return new CacheQueueProcessorMetrics(processors.orderedStream().collect(Collectors.toList()));
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,10 @@
 package com.cff.cache.queue.autoconfigure;
 
+import com.cff.cache.queue.CacheQueueType;
+import com.cff.cache.queue.lettuce.BlockLayout;
+import com.cff.cache.queue.lettuce.PayloadEncoding;
+import com.cff.cache.queue.shard.ConsistentHashRing;
+import com.cff.cache.queue.shard.ShardRouting;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.util.List;
@@ -21,6 +26,28 @@ public class CacheQueueProperties {
 
         private Pool pool;
 
+        private Cluster cluster;
+
+        private PayloadEncoding payloadEncoding = PayloadEncoding.RAW;
+
+        private List<Class<?>> serializerClasses;
+
+        private long leaseReaperIntervalMillis = 1000;
+
+        private CacheQueueType type = CacheQueueType.LIST;
+
+        private String streamConsumerName;
+
+        private boolean metricsEnabled;
+
+        private WriteBehind writeBehind;
+
+        private Sharding sharding;
+
+        private Collector collector;
+
+        private Async async;
+
         public String getHost() {
             return host;
         }
@@ -52,6 +79,332 @@ public class CacheQueueProperties {
         public void setPool(Pool pool) {
             this.pool = pool;
         }
+
+        public Cluster getCluster() {
+            return cluster;
+        }
+
+        public void setCluster(Cluster cluster) {
+            this.cluster = cluster;
+        }
+
+        public PayloadEncoding getPayloadEncoding() {
+            return payloadEncoding;
+        }
+
+        public void setPayloadEncoding(PayloadEncoding payloadEncoding) {
+            this.payloadEncoding = payloadEncoding;
+        }
+
+        public List<Class<?>> getSerializerClasses() {
+            return serializerClasses;
+        }
+
+        public void setSerializerClasses(List<Class<?>> serializerClasses) {
+            this.serializerClasses = serializerClasses;
+        }
+
+        public long getLeaseReaperIntervalMillis() {
+            return leaseReaperIntervalMillis;
+        }
+
+        public void setLeaseReaperIntervalMillis(long leaseReaperIntervalMillis) {
+            this.leaseReaperIntervalMillis = leaseReaperIntervalMillis;
+        }
+
+        public CacheQueueType getType() {
+            return type;
+        }
+
+        public void setType(CacheQueueType type) {
+            this.type = type;
+        }
+
+        public String getStreamConsumerName() {
+            return streamConsumerName;
+        }
+
+        public void setStreamConsumerName(String streamConsumerName) {
+            this.streamConsumerName = streamConsumerName;
+        }
+
+        public boolean isMetricsEnabled() {
+            return metricsEnabled;
+        }
+
+        public void setMetricsEnabled(boolean metricsEnabled) {
+            this.metricsEnabled = metricsEnabled;
+        }
+
+        public WriteBehind getWriteBehind() {
+            return writeBehind;
+        }
+
+        public void setWriteBehind(WriteBehind writeBehind) {
+            this.writeBehind = writeBehind;
+        }
+
+        public Sharding getSharding() {
+            return sharding;
+        }
+
+        public void setSharding(Sharding sharding) {
+            this.sharding = sharding;
+        }
+
+        public Collector getCollector() {
+            return collector;
+        }
+
+        public void setCollector(Collector collector) {
+            this.collector = collector;
+        }
+
+        public Async getAsync() {
+            return async;
+        }
+
+        public void setAsync(Async async) {
+            this.async = async;
+        }
+    }
+
+    public static class Cluster {
+
+        private boolean enabled;
+
+        private List<String> nodes;
+
+        private int maxRedirects = 5;
+
+        private long topologyRefreshPeriodMillis;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<String> nodes) {
+            this.nodes = nodes;
+        }
+
+        public int getMaxRedirects() {
+            return maxRedirects;
+        }
+
+        public void setMaxRedirects(int maxRedirects) {
+            this.maxRedirects = maxRedirects;
+        }
+
+        public long getTopologyRefreshPeriodMillis() {
+            return topologyRefreshPeriodMillis;
+        }
+
+        public void setTopologyRefreshPeriodMillis(long topologyRefreshPeriodMillis) {
+            this.topologyRefreshPeriodMillis = topologyRefreshPeriodMillis;
+        }
+    }
+
+    public static class Sharding {
+
+        private boolean enabled;
+
+        private ShardRouting routing = ShardRouting.BIZ_ID;
+
+        private int virtualNodes = ConsistentHashRing.DEFAULT_VIRTUAL_NODES;
+
+        private List<Shard> shards;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public ShardRouting getRouting() {
+            return routing;
+        }
+
+        public void setRouting(ShardRouting routing) {
+            this.routing = routing;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public List<Shard> getShards() {
+            return shards;
+        }
+
+        public void setShards(List<Shard> shards) {
+            this.shards = shards;
+        }
+    }
+
+    public static class Shard {
+
+        private String name;
+
+        private String host = "localhost";
+
+        private int port = 6379;
+
+        private String password;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    public static class Collector {
+
+        private boolean enabled;
+
+        private long intervalMillis = 100;
+
+        private int batchSize = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        public void setIntervalMillis(long intervalMillis) {
+            this.intervalMillis = intervalMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Async {
+
+        private boolean enabled;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class WriteBehind {
+
+        private boolean enabled;
+
+        private int capacity = 10000;
+
+        private int flushSize = 100;
+
+        private long flushIntervalMillis = 10;
+
+        private long offerTimeoutMillis = 1000;
+
+        private int maxRetries = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getFlushSize() {
+            return flushSize;
+        }
+
+        public void setFlushSize(int flushSize) {
+            this.flushSize = flushSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public long getOfferTimeoutMillis() {
+            return offerTimeoutMillis;
+        }
+
+        public void setOfferTimeoutMillis(long offerTimeoutMillis) {
+            this.offerTimeoutMillis = offerTimeoutMillis;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
     }
 
     public static class Pool {
@@ -76,6 +429,10 @@ public class CacheQueueProperties {
 
         private int computationThreadPoolSize;
 
+        private int blockingMaxTotal;
+
+        private int sharedConnections;
+
         public int getMaxTotal() {
             return maxTotal;
         }
@@ -155,6 +512,22 @@ public class CacheQueueProperties {
         public void setComputationThreadPoolSize(int computationThreadPoolSize) {
             this.computationThreadPoolSize = computationThreadPoolSize;
         }
+
+        public int getBlockingMaxTotal() {
+            return blockingMaxTotal;
+        }
+
+        public void setBlockingMaxTotal(int blockingMaxTotal) {
+            this.blockingMaxTotal = blockingMaxTotal;
+        }
+
+        public int getSharedConnections() {
+            return sharedConnections;
+        }
+
+        public void setSharedConnections(int sharedConnections) {
+            this.sharedConnections = sharedConnections;
+        }
     }
 
     public static class Biz {
@@ -163,6 +536,20 @@ public class CacheQueueProperties {
 
         private Integer blockSize;
 
+        private BlockLayout blockLayout = BlockLayout.LIST;
+
+        private String serializer;
+
+        private Compression compression;
+
+        private long leaseMillis;
+
+        private long ttlMillis;
+
+        private long consumedTtlMillis = -1;
+
+        private int pageSize;
+
         public String getBizId() {
             return bizId;
         }
@@ -178,6 +565,95 @@ public class CacheQueueProperties {
         public void setBlockSize(Integer blockSize) {
             this.blockSize = blockSize;
         }
+
+        public BlockLayout getBlockLayout() {
+            return blockLayout;
+        }
+
+        public void setBlockLayout(BlockLayout blockLayout) {
+            this.blockLayout = blockLayout;
+        }
+
+        public String getSerializer() {
+            return serializer;
+        }
+
+        public void setSerializer(String serializer) {
+            this.serializer = serializer;
+        }
+
+        public Compression getCompression() {
+            return compression;
+        }
+
+        public void setCompression(Compression compression) {
+            this.compression = compression;
+        }
+
+        public long getLeaseMillis() {
+            return leaseMillis;
+        }
+
+        public void setLeaseMillis(long leaseMillis) {
+            this.leaseMillis = leaseMillis;
+        }
+
+        public long getTtlMillis() {
+            return ttlMillis;
+        }
+
+        public void setTtlMillis(long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+        }
+
+        public long getConsumedTtlMillis() {
+            return consumedTtlMillis;
+        }
+
+        public void setConsumedTtlMillis(long consumedTtlMillis) {
+            this.consumedTtlMillis = consumedTtlMillis;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+    }
+
+    public static class Compression {
+
+        private String algorithm = "none";
+
+        private int level = -1;
+
+        private int minSize = 1024;
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public int getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(int minSize) {
+            this.minSize = minSize;
+        }
     }
     
     public Config getConfig() {
@@ -195,4 +671,21 @@ public class CacheQueueProperties {
     public void setBiz(List<Biz> biz) {
         this.biz = biz;
     }
+
+    /**
+     * 按业务ID查找业务配置
+     * @param bizId 业务ID
+     * @return 业务配置，未配置时返回null
+     */
+    public Biz findBiz(String bizId) {
+        if (biz == null || bizId == null) {
+            return null;
+        }
+        for (Biz item : biz) {
+            if (bizId.equals(item.getBizId())) {
+                return item;
+            }
+        }
+        return null;
+    }
 }
\ No newline at end of file
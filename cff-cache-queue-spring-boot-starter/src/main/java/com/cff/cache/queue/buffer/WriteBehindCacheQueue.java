@@ -0,0 +1,380 @@
+package com.cff.cache.queue.buffer;
+
+import com.cff.cache.queue.CacheQueue;
+import com.cff.cache.queue.autoconfigure.CacheQueueProperties;
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.exception.UncertainWriteException;
+import com.cff.cache.queue.lettuce.LettuceCacheQueue;
+import com.cff.cache.queue.model.Batch;
+import com.cff.cache.queue.model.Block;
+import com.cff.cache.queue.model.PendingBatch;
+import io.lettuce.core.RedisConnectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 写缓冲的CacheQueue装饰器，添加批次时先写入本地有界缓冲区，由后台线程批量写入被装饰的CacheQueue
+ * <p>缓冲区中的批次数达到{@code flushSize}或距上次写入超过{@code flushIntervalMillis}时写入，
+ * 被装饰的是{@link LettuceCacheQueue}时一次刷新的全部批次在同一个管道中写入。
+ * 缓冲区已满时添加批次最多等待{@code offerTimeoutMillis}，超时抛出{@link CacheQueueException}。</p>
+ * <p>被装饰的是{@link LettuceCacheQueue}时在添加批次的线程中完成序列化，无法序列化的批次由调用方直接收到异常。</p>
+ * <p>批次写入前对消费者不可见；写入失败的批次保留在缓冲区中重试，获取连接失败不限次数重试，
+ * 其他异常连续失败{@code maxRetries}次后逐个写入，仍然失败的批次被丢弃并记录日志，不阻塞后续批次。</p>
+ * <p>命令已发送但结果未知（{@link UncertainWriteException}）的批次可能已经部分写入，重新写入会重复添加块索引和批次ID，
+ * 并将已消费块数重置为0，因此不重试，记录错误日志后由{@link #flush()}抛出，数量通过{@link #getUncertainBatchCount()}获取。
+ * 关闭时将缓冲区中的批次全部写入后再关闭被装饰的CacheQueue。</p>
+ */
+public class WriteBehindCacheQueue<E extends Serializable> implements CacheQueue<E>, InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCacheQueue.class);
+
+    private final CacheQueue<E> delegate;
+
+    private final int flushSize;
+
+    private final long flushIntervalMillis;
+
+    private final long offerTimeoutMillis;
+
+    private final int maxRetries;
+
+    private final BlockingQueue<PendingBatch<E>> buffer;
+
+    /**
+     * 同一时刻只有一个线程写入，批次按添加顺序写入
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 已从缓冲区取出但还没有写入成功的批次，只在持有flushLock时访问
+     */
+    private final List<PendingBatch<E>> flushing = new ArrayList<>();
+
+    /**
+     * flushing中的批次连续写入失败的次数，不包括获取连接失败，只在持有flushLock时访问
+     */
+    private int failures;
+
+    private final AtomicLong droppedBatchCount = new AtomicLong();
+
+    private final AtomicLong uncertainBatchCount = new AtomicLong();
+
+    private volatile boolean closed;
+
+    private volatile Thread flusher;
+
+    public WriteBehindCacheQueue(CacheQueue<E> delegate) {
+        this(delegate, new CacheQueueProperties.WriteBehind());
+    }
+
+    public WriteBehindCacheQueue(CacheQueue<E> delegate, CacheQueueProperties.WriteBehind writeBehind) {
+        this.delegate = delegate;
+        this.flushSize = Math.max(1, writeBehind.getFlushSize());
+        this.flushIntervalMillis = Math.max(1, writeBehind.getFlushIntervalMillis());
+        this.offerTimeoutMillis = writeBehind.getOfferTimeoutMillis();
+        this.maxRetries = Math.max(1, writeBehind.getMaxRetries());
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, writeBehind.getCapacity()));
+    }
+
+    public CacheQueue<E> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 获取缓冲区中等待写入的批次数，不包括正在写入的批次
+     */
+    public int getBufferedBatchCount() {
+        return buffer.size();
+    }
+
+    /**
+     * 获取多次写入失败后被丢弃的批次数
+     */
+    public long getDroppedBatchCount() {
+        return droppedBatchCount.get();
+    }
+
+    /**
+     * 获取写入结果未知、没有重试的批次数，这些批次可能已经完整或部分写入
+     */
+    public long getUncertainBatchCount() {
+        return uncertainBatchCount.get();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (delegate instanceof InitializingBean) {
+            ((InitializingBean) delegate).afterPropertiesSet();
+        }
+        start();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        closed = true;
+        Thread thread = flusher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Failed to flush buffered batches on shutdown, {} batches not written", getBufferedBatchCount(), e);
+        }
+        if (delegate instanceof DisposableBean) {
+            ((DisposableBean) delegate).destroy();
+        }
+    }
+
+    /**
+     * 启动后台写入线程
+     */
+    public synchronized void start() {
+        if (flusher != null || closed) {
+            return;
+        }
+        Thread thread = new Thread(this::runFlusher, "cache-queue-write-behind");
+        thread.setDaemon(true);
+        thread.start();
+        flusher = thread;
+    }
+
+    /**
+     * 将缓冲区中的批次全部写入被装饰的CacheQueue，返回时调用前添加的批次均已写入
+     * @throws UncertainWriteException 部分批次写入结果未知，这些批次不再重试，其余批次已写入
+     * @throws CacheQueueException 缓存队列异常，未写入的批次保留在缓冲区中
+     */
+    public void flush() throws CacheQueueException {
+        UncertainWriteException uncertain = null;
+        flushLock.lock();
+        try {
+            while (!flushing.isEmpty() || buffer.drainTo(flushing, flushSize) > 0) {
+                try {
+                    write(flushing);
+                    failures = 0;
+                } catch (UncertainWriteException e) {
+                    // 结果未知的批次已从flushing中移除，继续写入其余批次
+                    failures = 0;
+                    uncertain = e;
+                } catch (CacheQueueException e) {
+                    if (isTransient(e) || ++failures < maxRetries) {
+                        throw e;
+                    }
+                    // 同一组批次多次写入失败，逐个写入并丢弃无法写入的批次
+                    failures = 0;
+                    writeEach(flushing);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        if (uncertain != null) {
+            throw uncertain;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void addBatch(String bizId, String batchId, Integer blockSize, List<E> list) throws CacheQueueException {
+        if (closed) {
+            throw new CacheQueueException("Write-behind cache queue is closed");
+        }
+        if (flusher == null) {
+            start();
+        }
+
+        // 复制任务列表，调用方在返回后修改列表不影响待写入的批次
+        PendingBatch<E> batch = new PendingBatch<>(bizId, batchId, blockSize, new ArrayList<>(list));
+        if (delegate instanceof LettuceCacheQueue) {
+            // 在调用线程中序列化，无法序列化的任务不进入缓冲区
+            ((LettuceCacheQueue<E>) delegate).serializeBatch(batch);
+        }
+        boolean accepted;
+        try {
+            accepted = buffer.offer(batch, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheQueueException("Interrupted while waiting for write buffer", e);
+        }
+        if (!accepted) {
+            throw new CacheQueueException("Write buffer is full, failed to add batch " + batchId);
+        }
+
+        if (closed) {
+            // 关闭过程中加入的批次由调用线程写入
+            flush();
+        } else if (buffer.size() >= flushSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    @Override
+    public void addBatch(String bizId, String batchId, Integer blockSize, Iterator<E> iterator) throws CacheQueueException {
+        if (closed) {
+            throw new CacheQueueException("Write-behind cache queue is closed");
+        }
+        // 逐块读取的批次不经过缓冲区，先写入缓冲的批次保持添加顺序
+        flush();
+        delegate.addBatch(bizId, batchId, blockSize, iterator);
+    }
+
+    @Override
+    public void addBlock(String bizId, String batchId, Integer blockIndex, List<E> list) throws CacheQueueException {
+        // 批次可能还在缓冲区中或正在写入，等待批次写入后再追加块
+        flush();
+        delegate.addBlock(bizId, batchId, blockIndex, list);
+    }
+
+    @Override
+    public void removeBatch(String bizId, String batchId) throws CacheQueueException {
+        flush();
+        delegate.removeBatch(bizId, batchId);
+    }
+
+    @Override
+    public void removeBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        flush();
+        delegate.removeBlock(bizId, batchId, blockIndex);
+    }
+
+    @Override
+    public Batch<E> nextBatch(String bizId) throws CacheQueueException {
+        return delegate.nextBatch(bizId);
+    }
+
+    @Override
+    public Batch<E> awaitBatch(String bizId, long timeoutMillis) throws CacheQueueException {
+        return delegate.awaitBatch(bizId, timeoutMillis);
+    }
+
+    @Override
+    public Block<E> nextBlock(String bizId, String batchId) throws CacheQueueException {
+        return delegate.nextBlock(bizId, batchId);
+    }
+
+    @Override
+    public Integer markBlockConsumed(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        return delegate.markBlockConsumed(bizId, batchId, blockIndex);
+    }
+
+    @Override
+    public Batch<E> getBatch(String bizId, String batchId) throws CacheQueueException {
+        return delegate.getBatch(bizId, batchId);
+    }
+
+    @Override
+    public Block<E> getBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        return delegate.getBlock(bizId, batchId, blockIndex);
+    }
+
+    private void runFlusher() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (!closed) {
+            // 达到flushSize时由addBatch提前唤醒
+            LockSupport.parkNanos(this, intervalNanos);
+            if (closed) {
+                break;
+            }
+            try {
+                flush();
+            } catch (Exception e) {
+                // 未写入的批次保留在缓冲区中，下一个周期重试
+                logger.warn("Failed to flush buffered batches, {} batches pending", getBufferedBatchCount(), e);
+            }
+        }
+    }
+
+    /**
+     * 写入批次，写入成功和结果未知的批次从列表中移除
+     */
+    @SuppressWarnings("unchecked")
+    private void write(List<PendingBatch<E>> batches) throws CacheQueueException {
+        if (delegate instanceof LettuceCacheQueue) {
+            try {
+                ((LettuceCacheQueue<E>) delegate).addBatches(batches);
+            } catch (UncertainWriteException e) {
+                // 同一个管道中的批次都可能已经写入
+                discardUncertain(batches, e);
+                batches.clear();
+                throw e;
+            }
+            batches.clear();
+            return;
+        }
+        // 逐个写入，已写入的批次不再重试
+        Iterator<PendingBatch<E>> iterator = batches.iterator();
+        while (iterator.hasNext()) {
+            PendingBatch<E> batch = iterator.next();
+            try {
+                delegate.addBatch(batch.getBizId(), batch.getBatchId(), batch.getBlockSize(), batch.getList());
+            } catch (UncertainWriteException e) {
+                discardUncertain(Collections.singletonList(batch), e);
+                iterator.remove();
+                throw e;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 记录写入结果未知的批次，这些批次不再重试
+     */
+    private void discardUncertain(List<PendingBatch<E>> batches, UncertainWriteException e) {
+        List<String> batchIds = new ArrayList<>(batches.size());
+        for (PendingBatch<E> batch : batches) {
+            batchIds.add(batch.getBizId() + "/" + batch.getBatchId());
+        }
+        uncertainBatchCount.addAndGet(batches.size());
+        logger.error("Write result unknown, batches not retried: {}", batchIds, e);
+    }
+
+    /**
+     * 逐个写入批次，丢弃写入失败的批次，连接失败或超时时停止写入，剩余的批次保留重试
+     */
+    private void writeEach(List<PendingBatch<E>> batches) throws CacheQueueException {
+        Iterator<PendingBatch<E>> iterator = batches.iterator();
+        while (iterator.hasNext()) {
+            PendingBatch<E> batch = iterator.next();
+            try {
+                write(new ArrayList<>(Collections.singletonList(batch)));
+            } catch (UncertainWriteException e) {
+                // 已记录日志，不计入丢弃数
+            } catch (CacheQueueException e) {
+                if (isTransient(e)) {
+                    throw e;
+                }
+                droppedBatchCount.incrementAndGet();
+                logger.error("Dropped batch after {} failed writes, bizId: {}, batchId: {}",
+                        maxRetries, batch.getBizId(), batch.getBatchId(), e);
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 连接失败和连接池耗尽时命令还没有发送，视为暂时性的异常，不计入失败次数
+     */
+    private static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisConnectionException || cause instanceof NoSuchElementException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
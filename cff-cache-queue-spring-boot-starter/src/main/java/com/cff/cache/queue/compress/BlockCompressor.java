@@ -0,0 +1,39 @@
+package com.cff.cache.queue.compress;
+
+import java.io.IOException;
+
+/**
+ * 块数据压缩器
+ * <p>压缩结果由{@link BlockCompressorRegistry}写入格式头，格式头中记录压缩器ID和原始长度，
+ * 因此修改业务的压缩配置后，已写入的块仍可正常解压。</p>
+ */
+public interface BlockCompressor {
+
+    /**
+     * 获取压缩器ID，写入格式头用于解压，一经使用不可更改
+     * @return 压缩器ID
+     */
+    byte getId();
+
+    /**
+     * 获取压缩器名称，用于业务配置
+     * @return 压缩器名称
+     */
+    String getName();
+
+    /**
+     * 压缩数据
+     * @param data 原始数据
+     * @param level 压缩级别，小于0时使用算法默认级别
+     * @return 压缩后的数据
+     */
+    byte[] compress(byte[] data, int level) throws IOException;
+
+    /**
+     * 解压数据
+     * @param data 压缩后的数据
+     * @param originalLength 原始数据长度
+     * @return 原始数据
+     */
+    byte[] decompress(byte[] data, int originalLength) throws IOException;
+}
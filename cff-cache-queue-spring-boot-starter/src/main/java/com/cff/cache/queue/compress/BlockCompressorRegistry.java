@@ -0,0 +1,131 @@
+package com.cff.cache.queue.compress;
+
+import com.cff.cache.queue.exception.CacheQueueException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 压缩器注册表，负责压缩格式头的写入和识别
+ * <p>压缩后的数据前写入六个字节的格式头：魔数 + 压缩器ID + 原始长度(int)。
+ * 未压缩的数据原样保存，其首字节为JDK对象流魔数、序列化格式头魔数或块二进制版本号，均不与压缩魔数冲突。</p>
+ */
+public class BlockCompressorRegistry {
+
+    /**
+     * 压缩格式头魔数
+     */
+    public static final byte HEADER_MAGIC = (byte) 0xCE;
+
+    /**
+     * 不压缩
+     */
+    public static final String NONE = "none";
+
+    private static final int HEADER_LENGTH = 6;
+
+    private final Map<Byte, BlockCompressor> compressorsById = new ConcurrentHashMap<>();
+
+    private final Map<String, BlockCompressor> compressorsByName = new ConcurrentHashMap<>();
+
+    private final Map<String, CompressionStats> stats = new ConcurrentHashMap<>();
+
+    public BlockCompressorRegistry() {
+        register(new DeflateBlockCompressor());
+    }
+
+    /**
+     * 注册压缩器
+     * @param compressor 压缩器
+     */
+    public void register(BlockCompressor compressor) {
+        BlockCompressor existing = compressorsById.get(compressor.getId());
+        if (existing != null && !existing.getName().equals(compressor.getName())) {
+            throw new IllegalArgumentException("Compressor id " + compressor.getId() + " is already used by "
+                    + existing.getName());
+        }
+        compressorsById.put(compressor.getId(), compressor);
+        compressorsByName.put(compressor.getName(), compressor);
+        stats.computeIfAbsent(compressor.getName(), name -> new CompressionStats());
+    }
+
+    /**
+     * 按名称获取压缩器
+     * @param name 压缩器名称
+     * @return 压缩器，名称为空或为none时返回null
+     * @throws CacheQueueException 压缩器未注册
+     */
+    public BlockCompressor getCompressor(String name) throws CacheQueueException {
+        if (name == null || name.isEmpty() || NONE.equals(name)) {
+            return null;
+        }
+        BlockCompressor compressor = compressorsByName.get(name);
+        if (compressor == null) {
+            throw new CacheQueueException("Compressor not registered: " + name);
+        }
+        return compressor;
+    }
+
+    /**
+     * 压缩数据并写入格式头，数据短于最小长度或压缩后未变小时原样返回
+     * @param compressor 压缩器，为null时不压缩
+     * @param level 压缩级别
+     * @param minSize 最小压缩长度
+     * @param data 原始数据
+     * @return 压缩后带格式头的数据或原始数据
+     */
+    public byte[] compress(BlockCompressor compressor, int level, int minSize, byte[] data) throws IOException {
+        if (compressor == null) {
+            return data;
+        }
+        CompressionStats compressionStats = stats.get(compressor.getName());
+        long start = System.nanoTime();
+        if (data.length < minSize) {
+            compressionStats.recordSkipped(System.nanoTime() - start);
+            return data;
+        }
+
+        byte[] compressed = compressor.compress(data, level);
+        if (compressed.length + HEADER_LENGTH >= data.length) {
+            compressionStats.recordSkipped(System.nanoTime() - start);
+            return data;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + compressed.length);
+        buffer.put(HEADER_MAGIC).put(compressor.getId()).putInt(data.length).put(compressed);
+        compressionStats.recordCompressed(data.length, buffer.capacity(), System.nanoTime() - start);
+        return buffer.array();
+    }
+
+    /**
+     * 根据格式头解压数据，未压缩的数据原样返回
+     * @param data 压缩后带格式头的数据或原始数据
+     * @return 原始数据
+     */
+    public byte[] decompress(byte[] data) throws IOException {
+        if (data.length < HEADER_LENGTH || data[0] != HEADER_MAGIC) {
+            return data;
+        }
+        BlockCompressor compressor = compressorsById.get(data[1]);
+        if (compressor == null) {
+            throw new IOException("Compressor not registered for id: " + data[1]);
+        }
+        long start = System.nanoTime();
+        int originalLength = ByteBuffer.wrap(data, 2, 4).getInt();
+        byte[] result = compressor.decompress(Arrays.copyOfRange(data, HEADER_LENGTH, data.length), originalLength);
+        stats.get(compressor.getName()).recordDecompressed(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * 获取各压缩器的统计信息
+     * @return 压缩器名称到统计信息的映射
+     */
+    public Map<String, CompressionStats> getStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+}
@@ -0,0 +1,82 @@
+package com.cff.cache.queue.compress;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压缩统计，记录压缩率和压缩、解压的CPU耗时
+ */
+public class CompressionStats {
+
+    private final LongAdder compressedCount = new LongAdder();
+
+    private final LongAdder skippedCount = new LongAdder();
+
+    private final LongAdder originalBytes = new LongAdder();
+
+    private final LongAdder compressedBytes = new LongAdder();
+
+    private final LongAdder compressNanos = new LongAdder();
+
+    private final LongAdder decompressedCount = new LongAdder();
+
+    private final LongAdder decompressNanos = new LongAdder();
+
+    void recordCompressed(int originalLength, int compressedLength, long nanos) {
+        compressedCount.increment();
+        originalBytes.add(originalLength);
+        compressedBytes.add(compressedLength);
+        compressNanos.add(nanos);
+    }
+
+    void recordSkipped(long nanos) {
+        skippedCount.increment();
+        compressNanos.add(nanos);
+    }
+
+    void recordDecompressed(long nanos) {
+        decompressedCount.increment();
+        decompressNanos.add(nanos);
+    }
+
+    /**
+     * 已压缩的数据条数
+     */
+    public long getCompressedCount() {
+        return compressedCount.sum();
+    }
+
+    /**
+     * 低于最小长度或压缩后未变小而原样写入的数据条数
+     */
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    public long getOriginalBytes() {
+        return originalBytes.sum();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    public long getCompressNanos() {
+        return compressNanos.sum();
+    }
+
+    public long getDecompressedCount() {
+        return decompressedCount.sum();
+    }
+
+    public long getDecompressNanos() {
+        return decompressNanos.sum();
+    }
+
+    /**
+     * 压缩率，即原始字节数与压缩后字节数之比，尚未压缩过数据时返回1
+     */
+    public double getCompressionRatio() {
+        long compressed = getCompressedBytes();
+        return compressed > 0 ? (double) getOriginalBytes() / compressed : 1.0d;
+    }
+}
@@ -0,0 +1,70 @@
+package com.cff.cache.queue.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 基于JDK Deflater的压缩器
+ */
+public class DeflateBlockCompressor implements BlockCompressor {
+
+    public static final byte ID = 1;
+
+    public static final String NAME = "deflate";
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int level) throws IOException {
+        Deflater deflater = new Deflater(level < 0 ? Deflater.DEFAULT_COMPRESSION : level, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                bos.write(buffer, 0, count);
+            }
+            return bos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int originalLength) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            byte[] result = new byte[originalLength];
+            int offset = 0;
+            while (offset < originalLength && !inflater.finished()) {
+                int count = inflater.inflate(result, offset, originalLength - offset);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != originalLength) {
+                throw new IOException("Corrupted deflate data, expected " + originalLength + " bytes but got " + offset);
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
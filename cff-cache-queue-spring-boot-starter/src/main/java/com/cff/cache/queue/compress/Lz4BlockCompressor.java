@@ -0,0 +1,45 @@
+package com.cff.cache.queue.compress;
+
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.io.IOException;
+
+/**
+ * 基于LZ4的压缩器，需要引入lz4-java
+ * <p>压缩级别小于等于0时使用快速模式，大于0时使用高压缩比模式(1-17)。</p>
+ */
+public class Lz4BlockCompressor implements BlockCompressor {
+
+    public static final byte ID = 2;
+
+    public static final String NAME = "lz4";
+
+    private final LZ4Factory factory = LZ4Factory.fastestInstance();
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int level) {
+        return level > 0 ? factory.highCompressor(level).compress(data) : factory.fastCompressor().compress(data);
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int originalLength) throws IOException {
+        LZ4FastDecompressor decompressor = factory.fastDecompressor();
+        try {
+            return decompressor.decompress(data, originalLength);
+        } catch (LZ4Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
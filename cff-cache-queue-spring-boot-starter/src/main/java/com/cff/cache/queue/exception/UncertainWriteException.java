@@ -0,0 +1,14 @@
+package com.cff.cache.queue.exception;
+
+/**
+ * 写入结果未知，命令已经发送到Redis但没有全部成功返回，部分或全部命令可能已经执行
+ * <p>重新写入不是幂等的，调用方需要先确认已写入的数据再决定是否重试。</p>
+ */
+public class UncertainWriteException extends CacheQueueException {
+
+    private static final long serialVersionUID = 4391708813745180513L;
+
+    public UncertainWriteException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,156 @@
+package com.cff.cache.queue.lettuce;
+
+import com.cff.cache.queue.autoconfigure.CacheQueueProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 批次回收器，删除批次时只记录批次ID，由后台线程定期在一个管道中批量删除，删除不占用消费线程
+ * <p>回收前批次信息仍然可读；同一批次重复删除只记录一次。回收失败的批次保留到下一个周期重试，
+ * 停止时等待正在进行的回收结束，再同步回收全部待删除的批次；停止后记录的批次由调用方直接删除。</p>
+ */
+public class BatchCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchCollector.class);
+
+    /**
+     * 停止时等待正在进行的回收结束的最长时间（秒）
+     */
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final LettuceCacheQueue<?> cacheQueue;
+
+    private final CacheQueueProperties.Collector collector;
+
+    /**
+     * 待删除的批次ID，按业务ID分组
+     */
+    private final Map<String, Set<String>> pending = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService scheduler;
+
+    /**
+     * 记录批次时持有读锁，停止时持有写锁，停止后不再有批次进入待删除集合
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private boolean running;
+
+    public BatchCollector(LettuceCacheQueue<?> cacheQueue, CacheQueueProperties properties) {
+        this.cacheQueue = cacheQueue;
+        CacheQueueProperties.Config config = properties.getConfig();
+        this.collector = config != null && config.getCollector() != null ? config.getCollector() : new CacheQueueProperties.Collector();
+    }
+
+    /**
+     * 启动回收线程，没有开启回收器时不启动
+     */
+    public synchronized void start() {
+        if (scheduler != null || !collector.isEnabled()) {
+            return;
+        }
+
+        long intervalMillis = Math.max(1, collector.getIntervalMillis());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-queue-batch-collector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::collect, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        setRunning(true);
+        logger.info("Batch collector started, interval: {}ms", intervalMillis);
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        setRunning(false);
+        ScheduledExecutorService executor = scheduler;
+        scheduler = null;
+
+        // 等待正在进行的回收结束，避免与最后一次回收同时处理同一批次
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Batch collector did not finish within {}s", STOP_TIMEOUT_SECONDS);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        collect();
+    }
+
+    /**
+     * 记录待删除的批次
+     * @return 回收线程未运行或已停止时返回false，由调用方直接删除
+     */
+    public boolean add(String bizId, String batchId) {
+        lock.readLock().lock();
+        try {
+            if (!running) {
+                return false;
+            }
+            pending.computeIfAbsent(bizId, key -> ConcurrentHashMap.newKeySet()).add(batchId);
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void setRunning(boolean running) {
+        lock.writeLock().lock();
+        try {
+            this.running = running;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取等待删除的批次数
+     */
+    public int getPendingBatchCount() {
+        int count = 0;
+        for (Set<String> batchIds : pending.values()) {
+            count += batchIds.size();
+        }
+        return count;
+    }
+
+    private void collect() {
+        int limit = Math.max(1, collector.getBatchSize());
+        for (Map.Entry<String, Set<String>> entry : pending.entrySet()) {
+            Set<String> batchIds = entry.getValue();
+            while (!batchIds.isEmpty()) {
+                List<String> chunk = new ArrayList<>(limit);
+                for (String batchId : batchIds) {
+                    chunk.add(batchId);
+                    if (chunk.size() >= limit) {
+                        break;
+                    }
+                }
+                try {
+                    cacheQueue.removeBatches(entry.getKey(), chunk);
+                    chunk.forEach(batchIds::remove);
+                } catch (Exception e) {
+                    logger.error("Failed to collect {} batches for bizId: {}", chunk.size(), entry.getKey(), e);
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.cff.cache.queue.lettuce;
+
+/**
+ * 块数据在Redis中的存储结构
+ */
+public enum BlockLayout {
+
+    /**
+     * 每个任务作为块数据列表中的一个元素存储，读取时使用LRANGE
+     */
+    LIST,
+
+    /**
+     * 整个块序列化为一个带长度前缀的二进制值，使用一次SET写入、一次GET读取
+     */
+    BLOB
+}
@@ -0,0 +1,86 @@
+package com.cff.cache.queue.lettuce;
+
+import com.cff.cache.queue.autoconfigure.CacheQueueProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 块租约回收器，定期将租约已过期的块放回块队列，使消费者宕机时已领取的块可以被其他消费者重新领取
+ */
+public class BlockLeaseReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockLeaseReaper.class);
+
+    private final LettuceCacheQueue<?> cacheQueue;
+
+    private final CacheQueueProperties properties;
+
+    private ScheduledExecutorService scheduler;
+
+    public BlockLeaseReaper(LettuceCacheQueue<?> cacheQueue, CacheQueueProperties properties) {
+        this.cacheQueue = cacheQueue;
+        this.properties = properties;
+    }
+
+    /**
+     * 启动回收线程，没有开启租约的业务时不启动
+     */
+    public synchronized void start() {
+        List<String> bizIds = leaseBizIds();
+        if (scheduler != null || bizIds.isEmpty()) {
+            return;
+        }
+
+        long intervalMillis = intervalMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-queue-lease-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> reap(bizIds), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Block lease reaper started for bizIds: {}, interval: {}ms", bizIds, intervalMillis);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void reap(List<String> bizIds) {
+        for (String bizId : bizIds) {
+            try {
+                int requeued = cacheQueue.requeueExpiredLeases(bizId);
+                if (requeued > 0) {
+                    logger.warn("Requeued {} blocks with expired leases for bizId: {}", requeued, bizId);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to requeue expired leases for bizId: " + bizId, e);
+            }
+        }
+    }
+
+    private List<String> leaseBizIds() {
+        List<String> bizIds = new ArrayList<>();
+        if (properties.getBiz() != null) {
+            for (CacheQueueProperties.Biz biz : properties.getBiz()) {
+                if (biz.getLeaseMillis() > 0) {
+                    bizIds.add(biz.getBizId());
+                }
+            }
+        }
+        return bizIds;
+    }
+
+    private long intervalMillis() {
+        CacheQueueProperties.Config config = properties.getConfig();
+        return config != null && config.getLeaseReaperIntervalMillis() > 0 ? config.getLeaseReaperIntervalMillis() : 1000;
+    }
+}
@@ -0,0 +1,161 @@
+package com.cff.cache.queue.lettuce;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 缓存队列使用的Lua脚本
+ */
+public class CacheQueueScripts {
+
+    /**
+     * 以毫秒为单位的Redis服务器时间，租约截止时间统一使用服务器时钟
+     */
+    private static final String NOW_MILLIS =
+            "local time = redis.call('TIME')\n" +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)\n";
+
+    /**
+     * 领取下一个块并读取块信息和块数据，租约时长大于0时将块加入租约集合
+     * <p>KEYS[1]：块队列键；KEYS[2]：租约集合键；ARGV[1]：块键前缀；ARGV[2]：租约时长（毫秒）；ARGV[3]：批次ID；
+     * ARGV[4]：分页大小，可选，大于0时列表结构的块只读取第一页</p>
+     * <p>返回：[块索引, consumed, layout, encoding, 块数据列表]，块队列为空时返回nil</p>
+     */
+    public static final RedisScript CLAIM_BLOCK = new RedisScript("claimBlock",
+            "local index = redis.call('LPOP', KEYS[1])\n" +
+            "if not index then\n" +
+            "  return nil\n" +
+            "end\n" +
+            "local leaseMillis = tonumber(ARGV[2])\n" +
+            "if leaseMillis > 0 then\n" +
+            NOW_MILLIS +
+            "  redis.call('ZADD', KEYS[2], now + leaseMillis, index .. ':' .. ARGV[3])\n" +
+            "end\n" +
+            "local prefix = ARGV[1] .. index\n" +
+            "local info = redis.call('HMGET', prefix .. ':info', 'consumed', 'layout', 'encoding')\n" +
+            "local data\n" +
+            "if info[2] == 'BLOB' then\n" +
+            "  local blob = redis.call('GET', prefix .. ':data')\n" +
+            "  data = blob and {blob} or {}\n" +
+            "else\n" +
+            "  local pageSize = tonumber(ARGV[4] or '0')\n" +
+            "  data = redis.call('LRANGE', prefix .. ':data', 0, pageSize > 0 and pageSize - 1 or -1)\n" +
+            "end\n" +
+            "return {index, info[1], info[2], info[3], data}\n");
+
+    /**
+     * 批次已删除或过期时不写入任何键，避免重新创建没有过期时间的块信息和批次信息；
+     * 块已删除或已被标记过时不重复计数
+     */
+    private static final String RETURN_IF_CONSUMED_OR_MISSING =
+            "if redis.call('EXISTS', KEYS[2]) == 0 then\n" +
+            "  return 0\n" +
+            "end\n" +
+            "if redis.call('EXISTS', KEYS[1]) == 0 or redis.call('HGET', KEYS[1], 'consumed') == 'true' then\n" +
+            "  return tonumber(redis.call('HGET', KEYS[2], 'consumedBlockCount') or '0')\n" +
+            "end\n";
+
+    /**
+     * 首次标记块为已消费时缩短块数据的过期时间，过期时间小于0时不修改，等于0时立即删除块数据
+     */
+    private static final String EXPIRE_CONSUMED_DATA =
+            "local ttl = tonumber(ARGV[#ARGV])\n" +
+            "if ttl >= 0 then\n" +
+            "  redis.call('PEXPIRE', KEYS[4], ttl)\n" +
+            "end\n";
+
+    /**
+     * 标记块为已消费并增加批次的已消费块计数，同时释放块的租约，块已被标记过时不重复计数
+     * <p>批次已删除或过期时只释放租约，不写入块信息和批次信息。</p>
+     * <p>KEYS[1]：块信息键；KEYS[2]：批次信息键；KEYS[3]：租约集合键；KEYS[4]：块数据键；
+     * ARGV[1]：租约成员；ARGV[2]：块数据在消费后的过期时间（毫秒）</p>
+     * <p>返回：批次当前的已消费块数，批次不存在时返回0</p>
+     */
+    public static final RedisScript MARK_BLOCK_CONSUMED = new RedisScript("markBlockConsumed",
+            "redis.call('ZREM', KEYS[3], ARGV[1])\n" +
+            RETURN_IF_CONSUMED_OR_MISSING +
+            "redis.call('HSET', KEYS[1], 'consumed', 'true')\n" +
+            EXPIRE_CONSUMED_DATA +
+            "return redis.call('HINCRBY', KEYS[2], 'consumedBlockCount', 1)\n");
+
+    /**
+     * 标记块为已消费并增加批次的已消费块计数，同时确认块在消费者组中的消息，块已被标记过时不重复计数
+     * <p>批次已删除或过期时只确认消息，不写入块信息和批次信息。</p>
+     * <p>KEYS[1]：块信息键；KEYS[2]：批次信息键；KEYS[3]：块流键；KEYS[4]：块数据键；
+     * ARGV[1]：消费者组；ARGV[2]：消息ID；ARGV[3]：块数据在消费后的过期时间（毫秒）</p>
+     * <p>返回：批次当前的已消费块数，批次不存在时返回0</p>
+     */
+    public static final RedisScript STREAM_MARK_BLOCK_CONSUMED = new RedisScript("streamMarkBlockConsumed",
+            "redis.call('XACK', KEYS[3], ARGV[1], ARGV[2])\n" +
+            RETURN_IF_CONSUMED_OR_MISSING +
+            "redis.call('HSET', KEYS[1], 'consumed', 'true')\n" +
+            EXPIRE_CONSUMED_DATA +
+            "return redis.call('HINCRBY', KEYS[2], 'consumedBlockCount', 1)\n");
+
+    /**
+     * 将租约已过期的块放回块队列头部，块已被消费或批次已删除时只移除租约
+     * <p>KEYS[1]：租约集合键；ARGV[1]：批次键前缀；ARGV[2]：单次最多处理的租约数；ARGV[3]：批次键后缀，集群布局下为"}"</p>
+     * <p>返回：放回块队列的块数</p>
+     */
+    public static final RedisScript REQUEUE_EXPIRED_LEASES = new RedisScript("requeueExpiredLeases",
+            NOW_MILLIS +
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now, 'LIMIT', 0, tonumber(ARGV[2]))\n" +
+            "local requeued = 0\n" +
+            "for _, member in ipairs(expired) do\n" +
+            "  redis.call('ZREM', KEYS[1], member)\n" +
+            "  local sep = string.find(member, ':', 1, true)\n" +
+            "  local index = string.sub(member, 1, sep - 1)\n" +
+            "  local batchPrefix = ARGV[1] .. string.sub(member, sep + 1) .. (ARGV[3] or '')\n" +
+            "  if redis.call('EXISTS', batchPrefix .. ':info') == 1\n" +
+            "      and redis.call('HGET', batchPrefix .. ':block:' .. index .. ':info', 'consumed') ~= 'true' then\n" +
+            "    redis.call('LPUSH', batchPrefix .. ':blocks', index)\n" +
+            "    requeued = requeued + 1\n" +
+            "  end\n" +
+            "end\n" +
+            "return requeued\n");
+
+    /**
+     * 使用UNLINK删除批次的全部键，内存在Redis后台线程中释放，同时移除批次中块的租约
+     * <p>先读取批次信息中的块数再删除，通过addBlock追加的、仍在块队列中的块一并删除。
+     * 每次UNLINK最多1000个键，避免超出Lua栈的限制。</p>
+     * <p>KEYS[1]：批次信息键；KEYS[2]：块队列键；KEYS[3]：块流键；KEYS[4]：租约集合键；
+     * ARGV[1]：块键前缀；ARGV[2]：批次ID；ARGV[3]：租约集合属于批次时为"1"</p>
+     * <p>返回：删除的键数</p>
+     */
+    public static final RedisScript REMOVE_BATCH = new RedisScript("removeBatch",
+            "local count = tonumber(redis.call('HGET', KEYS[1], 'blockCount') or '0')\n" +
+            "local keys = {KEYS[1], KEYS[2], KEYS[3]}\n" +
+            "local members = {}\n" +
+            "local function add(index)\n" +
+            "  table.insert(keys, ARGV[1] .. index .. ':info')\n" +
+            "  table.insert(keys, ARGV[1] .. index .. ':data')\n" +
+            "  table.insert(members, index .. ':' .. ARGV[2])\n" +
+            "end\n" +
+            "for i = 0, count - 1 do\n" +
+            "  add(i)\n" +
+            "end\n" +
+            "for _, index in ipairs(redis.call('LRANGE', KEYS[2], 0, -1)) do\n" +
+            "  if tonumber(index) >= count then\n" +
+            "    add(index)\n" +
+            "  end\n" +
+            "end\n" +
+            "if ARGV[3] == '1' then\n" +
+            "  table.insert(keys, KEYS[4])\n" +
+            "else\n" +
+            "  for i = 1, #members, 1000 do\n" +
+            "    redis.call('ZREM', KEYS[4], unpack(members, i, math.min(i + 999, #members)))\n" +
+            "  end\n" +
+            "end\n" +
+            "local removed = 0\n" +
+            "for i = 1, #keys, 1000 do\n" +
+            "  removed = removed + redis.call('UNLINK', unpack(keys, i, math.min(i + 999, #keys)))\n" +
+            "end\n" +
+            "return removed\n");
+
+    /**
+     * 启动时需要加载的全部脚本
+     */
+    public static final List<RedisScript> ALL = Collections.unmodifiableList(Arrays.asList(CLAIM_BLOCK, MARK_BLOCK_CONSUMED,
+            STREAM_MARK_BLOCK_CONSUMED, REQUEUE_EXPIRED_LEASES, REMOVE_BATCH));
+}
@@ -0,0 +1,24 @@
+package com.cff.cache.queue.lettuce;
+
+/**
+ * 连接池事件监听器，用于统计借用连接的等待时间和超时次数
+ * <p>回调在借用连接的线程中同步执行，实现需要足够轻量</p>
+ */
+public interface ConnectionPoolListener {
+
+    /**
+     * 成功借用连接
+     * @param poolName 连接池名称
+     * @param waitNanos 借用连接的等待时间
+     */
+    default void connectionBorrowed(String poolName, long waitNanos) {
+    }
+
+    /**
+     * 借用连接超时，连接池已满且等待超过maxWaitMillis
+     * @param poolName 连接池名称
+     * @param waitNanos 借用连接的等待时间
+     */
+    default void borrowTimedOut(String poolName, long waitNanos) {
+    }
+}
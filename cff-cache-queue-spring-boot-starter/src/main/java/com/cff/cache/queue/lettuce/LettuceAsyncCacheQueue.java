@@ -0,0 +1,289 @@
+package com.cff.cache.queue.lettuce;
+
+import com.cff.cache.queue.AsyncCacheQueue;
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.model.Batch;
+import com.cff.cache.queue.model.Block;
+import com.cff.cache.queue.util.CacheQueueConstants;
+import com.cff.cache.queue.util.CacheQueueKeys;
+import com.cff.cache.queue.util.RedisValueUtil;
+import io.lettuce.core.LMoveArgs;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * 基于Lettuce异步命令的AsyncCacheQueue实现
+ * <p>所有命令通过同一个多路复用连接发送，不占用连接池中的连接，调用线程不等待Redis响应。
+ * 连接在第一次操作时建立，Redis不可用时不影响应用启动。
+ * 块的反序列化在解码线程池中执行，不阻塞Lettuce的I/O线程。
+ * 键结构、Lua脚本和块编码与{@link LettuceCacheQueue}相同，两者可以操作同一批次。</p>
+ * <p>共享连接上不执行BLPOP等阻塞命令，监听批次仍使用{@link LettuceCacheQueue#awaitBatch}。</p>
+ */
+public class LettuceAsyncCacheQueue<E extends Serializable> implements AsyncCacheQueue<E>, DisposableBean {
+
+    private final LettuceCacheQueue<E> cacheQueue;
+
+    private final CacheQueueKeys keys;
+
+    private final Supplier<StatefulConnection<String, byte[]>> connector;
+
+    private final Executor decodeExecutor;
+
+    private volatile StatefulConnection<String, byte[]> connection;
+
+    public LettuceAsyncCacheQueue(LettuceCacheQueue<E> cacheQueue, Supplier<StatefulConnection<String, byte[]>> connector) {
+        this(cacheQueue, connector, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param cacheQueue 提供序列化、压缩和块编码配置的同步实现
+     * @param connector 创建多路复用的连接，连接由本对象负责关闭
+     * @param decodeExecutor 执行块反序列化的线程池
+     */
+    public LettuceAsyncCacheQueue(LettuceCacheQueue<E> cacheQueue, Supplier<StatefulConnection<String, byte[]>> connector,
+                                  Executor decodeExecutor) {
+        if (cacheQueue instanceof LettuceStreamCacheQueue) {
+            throw new IllegalArgumentException("Async cache queue does not support Redis Streams");
+        }
+        this.cacheQueue = cacheQueue;
+        this.keys = cacheQueue.getKeys();
+        this.connector = connector;
+        this.decodeExecutor = decodeExecutor;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+    }
+
+    @Override
+    public CompletionStage<Batch<E>> nextBatch(String bizId) {
+        return execute(() -> {
+            RedisClusterAsyncCommands<String, byte[]> commands = async();
+            String batchKey = keys.batches(bizId);
+            if (!cacheQueue.sharedBatches(bizId)) {
+                return commands.lpop(batchKey).thenCompose(batchId -> batchId != null
+                        ? getBatch(bizId, RedisValueUtil.asString(batchId)) : CompletableFuture.<Batch<E>>completedFuture(null));
+            }
+            return rotateBatch(commands, bizId, batchKey);
+        }, "Failed to get next batch");
+    }
+
+    /**
+     * 轮转批次队列直到取到批次信息仍存在的批次，与{@link LettuceCacheQueue#nextBatch}的共享模式相同
+     */
+    private CompletionStage<Batch<E>> rotateBatch(RedisClusterAsyncCommands<String, byte[]> commands, String bizId, String batchKey) {
+        return commands.lmove(batchKey, batchKey, LMoveArgs.Builder.leftRight()).thenCompose(value -> {
+            if (value == null) {
+                return CompletableFuture.<Batch<E>>completedFuture(null);
+            }
+            String batchId = RedisValueUtil.asString(value);
+            return getBatch(bizId, batchId).thenCompose(batch -> {
+                if (batch != null) {
+                    return CompletableFuture.completedFuture(batch);
+                }
+                // 批次信息已被删除，移除残留的批次ID
+                return commands.lrem(batchKey, 0, value).thenCompose(removed -> rotateBatch(commands, bizId, batchKey));
+            });
+        });
+    }
+
+    @Override
+    public CompletionStage<Block<E>> nextBlock(String bizId, String batchId) {
+        String blockKey = keys.blocks(bizId, batchId);
+        String leasesKey = keys.leases(bizId, batchId);
+        String blockKeyPrefix = keys.blockKeyPrefix(bizId, batchId);
+        return execute(() -> CacheQueueScripts.CLAIM_BLOCK.<List<Object>>executeAsync(async(),
+                ScriptOutputType.MULTI, new String[]{blockKey, leasesKey}, RedisValueUtil.asBytes(blockKeyPrefix),
+                RedisValueUtil.asBytes(cacheQueue.leaseMillis(bizId)), RedisValueUtil.asBytes(batchId))
+                .thenApplyAsync(value -> {
+                    try {
+                        return cacheQueue.toClaimedBlock(bizId, value);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, decodeExecutor), "Failed to get next block");
+    }
+
+    @Override
+    public CompletionStage<Void> addBatch(String bizId, String batchId, Integer blockSize, List<E> list) {
+        return execute(() -> {
+            // 先完成全部序列化，避免只写入了部分命令
+            List<List<byte[]>> serializedBlocks = cacheQueue.serializeBatch(bizId, blockSize, list);
+            return allOf(cacheQueue.writeBatch(async(), bizId, batchId, blockSize, serializedBlocks));
+        }, "Failed to add batch");
+    }
+
+    @Override
+    public CompletionStage<Void> addBlock(String bizId, String batchId, Integer blockIndex, List<E> list) {
+        return execute(() -> {
+            BlockLayout layout = cacheQueue.blockLayout(bizId);
+            List<byte[]> serializedItems = cacheQueue.serializeItems(bizId, list);
+            List<RedisFuture<?>> futures = new ArrayList<>();
+            cacheQueue.writeBlock(async(), futures, bizId, batchId, blockIndex, layout, serializedItems);
+            cacheQueue.expireBatch(async(), futures, bizId, batchId);
+            return allOf(futures);
+        }, "Failed to add block");
+    }
+
+    @Override
+    public CompletionStage<Integer> markBlockConsumed(String bizId, String batchId, Integer blockIndex) {
+        String blockInfoKey = keys.blockInfo(bizId, batchId, blockIndex);
+        String batchInfoKey = keys.batchInfo(bizId, batchId);
+        String leasesKey = keys.leases(bizId, batchId);
+        String blockDataKey = keys.blockData(bizId, batchId, blockIndex);
+        return execute(() -> CacheQueueScripts.MARK_BLOCK_CONSUMED.<Long>executeAsync(async(),
+                ScriptOutputType.INTEGER, new String[]{blockInfoKey, batchInfoKey, leasesKey, blockDataKey},
+                RedisValueUtil.asBytes(blockIndex + ":" + batchId), RedisValueUtil.asBytes(cacheQueue.consumedTtlMillis(bizId)))
+                .thenApply(Long::intValue), "Failed to mark block consumed");
+    }
+
+    @Override
+    public CompletionStage<Batch<E>> getBatch(String bizId, String batchId) {
+        String batchInfoKey = keys.batchInfo(bizId, batchId);
+        return execute(() -> async().hmget(batchInfoKey, CacheQueueConstants.BATCH_BLOCK_SIZE,
+                        CacheQueueConstants.BATCH_BLOCK_COUNT, CacheQueueConstants.BATCH_CONSUMED_BLOCK_COUNT)
+                .thenApply(batchInfo -> cacheQueue.toBatch(bizId, batchId, batchInfo)), "Failed to get batch");
+    }
+
+    @Override
+    public CompletionStage<Block<E>> getBlock(String bizId, String batchId, Integer blockIndex) {
+        return execute(() -> readBlock(async(), bizId, batchId, blockIndex), "Failed to get block");
+    }
+
+    private CompletionStage<Block<E>> readBlock(RedisClusterAsyncCommands<String, byte[]> commands,
+                                                String bizId, String batchId, Integer blockIndex) {
+        String blockInfoKey = keys.blockInfo(bizId, batchId, blockIndex);
+        String blockDataKey = keys.blockData(bizId, batchId, blockIndex);
+        return commands.hmget(blockInfoKey, CacheQueueConstants.BLOCK_CONSUMED,
+                CacheQueueConstants.BLOCK_LAYOUT, CacheQueueConstants.BLOCK_ENCODING).thenCompose(blockInfo -> {
+            String consumedStr = RedisValueUtil.asString(blockInfo.get(0).getValueOrElse(null));
+            String layoutStr = RedisValueUtil.asString(blockInfo.get(1).getValueOrElse(null));
+            String encodingStr = RedisValueUtil.asString(blockInfo.get(2).getValueOrElse(null));
+
+            CompletionStage<List<byte[]>> data;
+            if (BlockLayout.BLOB.name().equals(layoutStr)) {
+                data = commands.get(blockDataKey).thenApply(blob -> blob != null
+                        ? Collections.singletonList(blob) : Collections.<byte[]>emptyList());
+            } else {
+                data = commands.lrange(blockDataKey, 0, -1);
+            }
+            return data.thenApplyAsync(values -> {
+                try {
+                    return cacheQueue.toBlock(bizId, blockIndex, consumedStr, layoutStr, encodingStr, values);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, decodeExecutor);
+        });
+    }
+
+    @Override
+    public CompletionStage<Void> removeBatch(String bizId, String batchId) {
+        return execute(() -> {
+            RedisClusterAsyncCommands<String, byte[]> commands = async();
+
+            // 从批次队列中移除批次ID，同时由脚本删除批次的全部键，两条命令不等待彼此的响应
+            String batchKey = keys.batches(bizId);
+            CompletableFuture<Long> removeId = commands.lrem(batchKey, 1, RedisValueUtil.asBytes(batchId)).toCompletableFuture();
+            CompletionStage<Long> removeKeys = CacheQueueScripts.REMOVE_BATCH.<Long>executeAsync(commands, ScriptOutputType.INTEGER,
+                    cacheQueue.removeBatchKeys(bizId, batchId), cacheQueue.removeBatchArgs(bizId, batchId));
+            return removeId.thenCombine(removeKeys, (removed, unlinked) -> (Void) null);
+        }, "Failed to remove batch");
+    }
+
+    @Override
+    public CompletionStage<Void> removeBlock(String bizId, String batchId, Integer blockIndex) {
+        return execute(() -> {
+            RedisClusterAsyncCommands<String, byte[]> commands = async();
+            List<RedisFuture<?>> futures = new ArrayList<>();
+            futures.add(commands.del(keys.blockInfo(bizId, batchId, blockIndex),
+                    keys.blockData(bizId, batchId, blockIndex)));
+
+            // 从块队列中移除块索引
+            String blockKey = keys.blocks(bizId, batchId);
+            futures.add(commands.lrem(blockKey, 1, RedisValueUtil.asBytes(blockIndex)));
+            return allOf(futures);
+        }, "Failed to remove block");
+    }
+
+    private RedisClusterAsyncCommands<String, byte[]> async() {
+        return LettuceConnectionPool.async(connection());
+    }
+
+    /**
+     * 获取多路复用的连接，第一次调用时建立连接
+     */
+    private StatefulConnection<String, byte[]> connection() {
+        StatefulConnection<String, byte[]> current = connection;
+        if (current == null) {
+            synchronized (this) {
+                current = connection;
+                if (current == null) {
+                    current = connector.get();
+                    connection = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 执行操作，建立连接或发送命令时的异常也通过返回的CompletionStage传递
+     */
+    private static <T> CompletionStage<T> execute(Callable<CompletionStage<T>> operation, String message) {
+        try {
+            return wrap(operation.call(), message);
+        } catch (Exception e) {
+            return failed(message, e);
+        }
+    }
+
+    private static CompletionStage<Void> allOf(List<RedisFuture<?>> futures) {
+        CompletableFuture<?>[] completableFutures = new CompletableFuture[futures.size()];
+        for (int i = 0; i < completableFutures.length; i++) {
+            completableFutures[i] = futures.get(i).toCompletableFuture();
+        }
+        return CompletableFuture.allOf(completableFutures);
+    }
+
+    /**
+     * 将操作的异常统一包装为CacheQueueException
+     */
+    private static <T> CompletionStage<T> wrap(CompletionStage<T> stage, String message) {
+        return stage.handle((value, error) -> {
+            if (error == null) {
+                return value;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CacheQueueException) {
+                throw (CacheQueueException) cause;
+            }
+            throw new CacheQueueException(message, cause);
+        });
+    }
+
+    private static <T> CompletionStage<T> failed(String message, Exception e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e instanceof CacheQueueException ? e : new CacheQueueException(message, e));
+        return future;
+    }
+}
@@ -1,43 +1,210 @@
 package com.cff.cache.queue.lettuce;
 
 import com.cff.cache.queue.CacheQueue;
+import com.cff.cache.queue.CacheQueueCodecListener;
+import com.cff.cache.queue.autoconfigure.CacheQueueProperties;
+import com.cff.cache.queue.compress.BlockCompressor;
+import com.cff.cache.queue.compress.BlockCompressorRegistry;
 import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.exception.UncertainWriteException;
 import com.cff.cache.queue.model.Batch;
 import com.cff.cache.queue.model.Block;
+import com.cff.cache.queue.model.PendingBatch;
+import com.cff.cache.queue.serializer.CacheQueueSerializer;
+import com.cff.cache.queue.serializer.CacheQueueSerializerRegistry;
+import com.cff.cache.queue.util.BlockBlobUtil;
 import com.cff.cache.queue.util.CacheQueueConstants;
-import com.cff.cache.queue.util.SerializationUtil;
-import io.lettuce.core.api.StatefulRedisConnection;
-import io.lettuce.core.api.sync.RedisCommands;
+import com.cff.cache.queue.util.CacheQueueKeys;
+import com.cff.cache.queue.util.RedisValueUtil;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LMoveArgs;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.TimeoutException;
 
 @Component
-public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E> {
+public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E>, InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LettuceCacheQueue.class);
+
+    /**
+     * 回收租约时单次最多处理的租约数
+     */
+    private static final int REQUEUE_LIMIT = 100;
 
     private final LettuceConnectionPool connectionPool;
 
+    private final CacheQueueProperties properties;
+
+    private final CacheQueueSerializerRegistry serializerRegistry;
+
+    private final BlockCompressorRegistry compressorRegistry;
+
+    private final BlockLeaseReaper leaseReaper;
+
+    private final BatchCollector batchCollector;
+
+    private final CacheQueueKeys keys;
+
+    private volatile CacheQueueCodecListener codecListener;
+
     public LettuceCacheQueue(LettuceConnectionPool connectionPool) {
+        this(connectionPool, new CacheQueueProperties());
+    }
+
+    public LettuceCacheQueue(LettuceConnectionPool connectionPool, CacheQueueProperties properties) {
+        this(connectionPool, properties, new CacheQueueSerializerRegistry());
+    }
+
+    public LettuceCacheQueue(LettuceConnectionPool connectionPool, CacheQueueProperties properties,
+                             CacheQueueSerializerRegistry serializerRegistry) {
+        this(connectionPool, properties, serializerRegistry, new BlockCompressorRegistry());
+    }
+
+    @Autowired
+    public LettuceCacheQueue(LettuceConnectionPool connectionPool, CacheQueueProperties properties,
+                             CacheQueueSerializerRegistry serializerRegistry,
+                             BlockCompressorRegistry compressorRegistry) {
         this.connectionPool = connectionPool;
+        this.properties = properties;
+        this.serializerRegistry = serializerRegistry;
+        this.compressorRegistry = compressorRegistry;
+        this.leaseReaper = new BlockLeaseReaper(this, properties);
+        this.batchCollector = new BatchCollector(this, properties);
+        this.keys = properties.getConfig() != null && properties.getConfig().getCluster() != null
+                && properties.getConfig().getCluster().isEnabled() ? CacheQueueKeys.CLUSTER : CacheQueueKeys.STANDALONE;
+    }
+
+    /**
+     * 队列使用的连接池，分片时用于发布各分片连接池的指标
+     */
+    public LettuceConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * Redis键布局，连接Redis Cluster时使用哈希标签布局
+     */
+    protected CacheQueueKeys getKeys() {
+        return keys;
+    }
+
+    /**
+     * 设置序列化监听器，未设置时不统计序列化耗时
+     */
+    public void setCodecListener(CacheQueueCodecListener codecListener) {
+        this.codecListener = codecListener;
     }
 
     @Override
-    public Batch<E> nextBatch(String bizId) throws CacheQueueException {
-        StatefulRedisConnection<String, String> connection = null;
+    public void afterPropertiesSet() {
+        loadScripts();
+        if (usesLeaseReaper()) {
+            leaseReaper.start();
+        }
+        batchCollector.start();
+    }
+
+    /**
+     * 是否需要租约回收线程将过期租约的块放回块队列
+     */
+    protected boolean usesLeaseReaper() {
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        leaseReaper.stop();
+        batchCollector.stop();
+    }
+
+    public BatchCollector getBatchCollector() {
+        return batchCollector;
+    }
+
+    /**
+     * 将Lua脚本预先加载到Redis，加载失败时在首次执行收到NOSCRIPT后再加载
+     */
+    public void loadScripts() {
+        StatefulConnection<String, byte[]> connection = null;
         try {
             connection = connectionPool.getConnection();
-            RedisCommands<String, String> commands = connection.sync();
-            String batchKey = String.format(CacheQueueConstants.BATCHES_KEY_TEMPLATE, bizId);
-            String batchId = commands.lpop(batchKey);
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
+            for (RedisScript script : CacheQueueScripts.ALL) {
+                script.load(commands);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to load cache queue scripts, they will be loaded on first use", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionPool.close(connection);
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+        }
+    }
 
-            if (batchId == null) {
+    @Override
+    public Batch<E> nextBatch(String bizId) throws CacheQueueException {
+        StatefulConnection<String, byte[]> connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
+            String batchKey = keys.batches(bizId);
+            if (!sharedBatches(bizId)) {
+                String batchId;
+                while ((batchId = RedisValueUtil.asString(commands.lpop(batchKey))) != null) {
+                    Batch<E> batch = getBatch(bizId, batchId);
+                    if (batch != null) {
+                        return batch;
+                    }
+                    // 批次已删除或已过期，跳过残留的批次ID
+                }
                 return null;
             }
 
-            return getBatch(bizId, batchId);
+            // 批次在删除前一直留在批次队列中，轮转队列使多个消费者可以同时消费同一批次
+            while (true) {
+                String batchId = RedisValueUtil.asString(commands.lmove(batchKey, batchKey, LMoveArgs.Builder.leftRight()));
+                if (batchId == null) {
+                    return null;
+                }
+                Batch<E> batch = getBatch(bizId, batchId);
+                if (batch != null) {
+                    return batch;
+                }
+                // 批次信息已被删除，移除残留的批次ID
+                commands.lrem(batchKey, 0, RedisValueUtil.asBytes(batchId));
+            }
+        } catch (CacheQueueException e) {
+            throw e;
         } catch (Exception e) {
             throw new CacheQueueException("Failed to get next batch", e);
         } finally {
@@ -51,22 +218,80 @@ public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E>
         }
     }
 
+    @Override
+    public Batch<E> awaitBatch(String bizId, long timeoutMillis) throws CacheQueueException {
+        String batchKey = keys.batches(bizId);
+        boolean shared = sharedBatches(bizId);
+        double timeoutSeconds = timeoutMillis / 1000.0;
+
+        String batchId;
+        StatefulConnection<String, byte[]> connection = null;
+        try {
+            connection = connectionPool.getBlockingConnection();
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
+            if (shared) {
+                // 批次留在批次队列中，与nextBatch一样轮转队列
+                batchId = RedisValueUtil.asString(commands.blmove(batchKey, batchKey, LMoveArgs.Builder.leftRight(), timeoutSeconds));
+            } else {
+                KeyValue<String, byte[]> result = commands.blpop(timeoutSeconds, batchKey);
+                batchId = result != null && result.hasValue() ? RedisValueUtil.asString(result.getValue()) : null;
+            }
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to await next batch", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionPool.closeBlockingConnection(connection);
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+        }
+
+        if (batchId == null) {
+            return null;
+        }
+        Batch<E> batch = getBatch(bizId, batchId);
+        if (batch == null) {
+            if (shared) {
+                // 批次信息已被删除，移除残留的批次ID
+                removeBatchId(bizId, batchId);
+            }
+            // 批次已删除或已过期，继续获取队列中的其他批次
+            return nextBatch(bizId);
+        }
+        return batch;
+    }
+
     @Override
     public Block<E> nextBlock(String bizId, String batchId) throws CacheQueueException {
-        StatefulRedisConnection<String, String> connection = null;
+        StatefulConnection<String, byte[]> connection = null;
         try {
             connection = connectionPool.getConnection();
-            RedisCommands<String, String> commands = connection.sync();
-            
-            String blockKey = String.format(CacheQueueConstants.BLOCKS_KEY_TEMPLATE, bizId, batchId);
-            String blockIndexStr = commands.lpop(blockKey);
-            
-            if (blockIndexStr == null) {
-                return null;
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
+
+            // 领取块索引、读取块信息和块数据在同一个脚本中原子完成，只需一次往返
+            String blockKey = keys.blocks(bizId, batchId);
+            String leasesKey = keys.leases(bizId, batchId);
+            String blockKeyPrefix = keys.blockKeyPrefix(bizId, batchId);
+            int pageSize = pageSize(bizId);
+            List<Object> result = CacheQueueScripts.CLAIM_BLOCK.execute(commands, ScriptOutputType.MULTI,
+                    new String[]{blockKey, leasesKey}, RedisValueUtil.asBytes(blockKeyPrefix),
+                    RedisValueUtil.asBytes(leaseMillis(bizId)), RedisValueUtil.asBytes(batchId),
+                    RedisValueUtil.asBytes(pageSize));
+
+            if (pageSize > 0 && result != null && !result.isEmpty()
+                    && !BlockLayout.BLOB.name().equals(RedisValueUtil.asString((byte[]) result.get(2)))) {
+                // 只读取了第一页，其余的页在迭代时读取
+                Integer blockIndex = Integer.valueOf(RedisValueUtil.asString((byte[]) result.get(0)));
+                @SuppressWarnings("unchecked")
+                List<byte[]> firstPage = (List<byte[]>) result.get(4);
+                return toPagedBlock(bizId, batchId, blockIndex, RedisValueUtil.asString((byte[]) result.get(1)),
+                        RedisValueUtil.asString((byte[]) result.get(3)), firstPage, pageSize);
             }
-            
-            Integer blockIndex = Integer.valueOf(blockIndexStr);
-            return getBlock(bizId, batchId, blockIndex);
+            return toClaimedBlock(bizId, result);
+        } catch (CacheQueueException e) {
+            throw e;
         } catch (Exception e) {
             throw new CacheQueueException("Failed to get next block", e);
         } finally {
@@ -82,33 +307,16 @@ public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E>
 
     @Override
     public void addBatch(String bizId, String batchId, Integer blockSize, List<E> list) throws CacheQueueException {
-        StatefulRedisConnection<String, String> connection = null;
+        StatefulConnection<String, byte[]> connection = null;
         try {
-            connection = connectionPool.getConnection();
-            RedisCommands<String, String> commands = connection.sync();
-            // 计算块数量
-            int blockCount = (int) Math.ceil((double) list.size() / blockSize);
-
-            // 保存批次信息
-            String batchInfoKey = String.format(CacheQueueConstants.BATCH_INFO_KEY_TEMPLATE, bizId, batchId);
-            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_BIZ_ID, bizId);
-            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_BATCH_ID, batchId);
-            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_BLOCK_SIZE, String.valueOf(blockSize));
-            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_BLOCK_COUNT, String.valueOf(blockCount));
-            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_CONSUMED_BLOCK_COUNT, "0");
-
-            // 将任务列表拆分为块并保存
-            for (int i = 0; i < blockCount; i++) {
-                int startIndex = i * blockSize;
-                int endIndex = Math.min(startIndex + blockSize, list.size());
-                List<E> subList = list.subList(startIndex, endIndex);
-
-                addBlock(bizId, batchId, i, subList);
-            }
-
-            // 将批次ID添加到批次队列中
-            String batchKey = String.format(CacheQueueConstants.BATCHES_KEY_TEMPLATE, bizId);
-            commands.rpush(batchKey, batchId);
+            // 先完成全部序列化，避免管道中只写入了部分命令
+            List<List<byte[]>> serializedBlocks = serializeBatch(bizId, blockSize, list);
+
+            // 管道需要关闭自动刷新，使用独占连接
+            connection = connectionPool.getExclusiveConnection();
+            executePipelined(connection, commands -> writeBatch(commands, bizId, batchId, blockSize, serializedBlocks));
+        } catch (CacheQueueException e) {
+            throw e;
         } catch (Exception e) {
             throw new CacheQueueException("Failed to add batch", e);
         } finally {
@@ -123,31 +331,144 @@ public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E>
     }
 
     @Override
-    public void addBlock(String bizId, String batchId, Integer blockIndex, List<E> list) throws CacheQueueException {
-        StatefulRedisConnection<String, String> connection = null;
+    public void addBatch(String bizId, String batchId, Integer blockSize, Iterator<E> iterator) throws CacheQueueException {
+        StatefulConnection<String, byte[]> connection = null;
+        boolean started = false;
         try {
-            connection = connectionPool.getConnection();
-            RedisCommands<String, String> commands = connection.sync();
-            
-            // 保存块信息
-            String blockInfoKey = String.format(CacheQueueConstants.BLOCK_INFO_KEY_TEMPLATE, bizId, batchId, blockIndex);
-            commands.hset(blockInfoKey, CacheQueueConstants.BLOCK_INDEX, String.valueOf(blockIndex));
-            commands.hset(blockInfoKey, CacheQueueConstants.BLOCK_CONSUMED, "false");
-            
-            // 保存块中的任务列表
-            String blockDataKey = String.format(CacheQueueConstants.BLOCK_DATA_KEY_TEMPLATE, bizId, batchId, blockIndex);
-            for (E item : list) {
+            BlockLayout layout = blockLayout(bizId);
+            connection = connectionPool.getExclusiveConnection();
+
+            // 先写入块数为0的批次信息，批次ID在最后一个块之后加入批次队列，写入过程中批次对消费者不可见
+            // 批次信息和块队列立即设置过期时间，生产者中途退出时不会残留
+            executePipelined(connection, commands -> {
+                List<RedisFuture<?>> futures = new ArrayList<>();
+                futures.add(commands.hset(keys.batchInfo(bizId, batchId), batchInfo(bizId, batchId, blockSize, 0)));
+                createBlockQueue(commands, futures, bizId, batchId);
+                expireBatch(commands, futures, bizId, batchId);
+                return futures;
+            });
+            started = true;
+
+            // 每凑满一个块就写入，只在内存中保留当前块的任务
+            List<E> block = new ArrayList<>(blockSize);
+            int blockIndex = 0;
+            while (iterator.hasNext()) {
+                block.add(iterator.next());
+                if (block.size() >= blockSize && iterator.hasNext()) {
+                    writeStreamedBlock(connection, bizId, batchId, blockIndex++, layout, block, false);
+                    block.clear();
+                }
+            }
+            writeStreamedBlock(connection, bizId, batchId, blockIndex, layout, block, true);
+        } catch (Exception e) {
+            if (started) {
+                // 删除已写入的块，批次ID还没有加入批次队列
+                removePartialBatch(connection, bizId, batchId);
+            }
+            if (e instanceof CacheQueueException) {
+                throw (CacheQueueException) e;
+            }
+            throw new CacheQueueException("Failed to add batch", e);
+        } finally {
+            if (connection != null) {
                 try {
-                    String serializedItem = SerializationUtil.serializeToString(item);
-                    commands.rpush(blockDataKey, serializedItem);
+                    connectionPool.close(connection);
                 } catch (Exception e) {
-                    throw new CacheQueueException("Failed to serialize item", e);
+                    // Ignore
                 }
             }
-            
-            // 将块索引添加到块队列中
-            String blockKey = String.format(CacheQueueConstants.BLOCKS_KEY_TEMPLATE, bizId, batchId);
-            commands.rpush(blockKey, String.valueOf(blockIndex));
+        }
+    }
+
+    /**
+     * 写入一个块并更新批次的块数，同时刷新批次的过期时间，最后一个块与批次ID在同一个管道中写入
+     */
+    private void writeStreamedBlock(StatefulConnection<String, byte[]> connection, String bizId, String batchId,
+                                    int blockIndex, BlockLayout layout, List<E> block, boolean last) throws IOException {
+        List<byte[]> payloads = block.isEmpty() ? null : serializeBlock(bizId, layout, block);
+        int blockCount = payloads != null ? blockIndex + 1 : blockIndex;
+        executePipelined(connection, commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>();
+            if (payloads != null) {
+                writeBlock(commands, futures, bizId, batchId, blockIndex, layout, payloads);
+            }
+            futures.add(commands.hset(keys.batchInfo(bizId, batchId), CacheQueueConstants.BATCH_BLOCK_COUNT,
+                    RedisValueUtil.asBytes(blockCount)));
+            // 列表结构的块队列在写入第一个块时才创建
+            expireBatch(commands, futures, bizId, batchId);
+            if (last) {
+                futures.add(commands.rpush(keys.batches(bizId), RedisValueUtil.asBytes(batchId)));
+            }
+            return futures;
+        });
+    }
+
+    private void removePartialBatch(StatefulConnection<String, byte[]> connection, String bizId, String batchId) {
+        try {
+            CacheQueueScripts.REMOVE_BATCH.execute(LettuceConnectionPool.sync(connection), ScriptOutputType.INTEGER,
+                    removeBatchKeys(bizId, batchId), removeBatchArgs(bizId, batchId));
+        } catch (Exception e) {
+            logger.error("Failed to remove partially written batch: {}", batchId, e);
+        }
+    }
+
+    /**
+     * 批量添加批次，全部批次的命令在同一个管道中写入
+     * @param batches 待写入的批次
+     * @throws CacheQueueException 缓存队列异常
+     */
+    public void addBatches(List<PendingBatch<E>> batches) throws CacheQueueException {
+        if (batches.isEmpty()) {
+            return;
+        }
+        StatefulConnection<String, byte[]> connection = null;
+        try {
+            List<List<List<byte[]>>> serializedBatches = new ArrayList<>(batches.size());
+            for (PendingBatch<E> batch : batches) {
+                serializedBatches.add(batch.getSerializedBlocks() != null ? batch.getSerializedBlocks()
+                        : serializeBatch(batch.getBizId(), batch.getBlockSize(), batch.getList()));
+            }
+
+            connection = connectionPool.getExclusiveConnection();
+            executePipelined(connection, commands -> {
+                List<RedisFuture<?>> futures = new ArrayList<>();
+                for (int i = 0; i < batches.size(); i++) {
+                    PendingBatch<E> batch = batches.get(i);
+                    futures.addAll(writeBatch(commands, batch.getBizId(), batch.getBatchId(), batch.getBlockSize(),
+                            serializedBatches.get(i)));
+                }
+                return futures;
+            });
+        } catch (CacheQueueException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to add batches", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionPool.close(connection);
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    public void addBlock(String bizId, String batchId, Integer blockIndex, List<E> list) throws CacheQueueException {
+        StatefulConnection<String, byte[]> connection = null;
+        try {
+            BlockLayout layout = blockLayout(bizId);
+            List<byte[]> payloads = serializeBlock(bizId, layout, list);
+
+            connection = connectionPool.getExclusiveConnection();
+            executePipelined(connection, commands -> {
+                List<RedisFuture<?>> futures = new ArrayList<>();
+                writeBlock(commands, futures, bizId, batchId, blockIndex, layout, payloads);
+                // 追加块时延长批次的过期时间
+                expireBatch(commands, futures, bizId, batchId);
+                return futures;
+            });
         } catch (CacheQueueException e) {
             throw e;
         } catch (Exception e) {
@@ -162,23 +483,23 @@ public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E>
             }
         }
     }
-    
+
     @Override
-    public void markBlockConsumed(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
-        StatefulRedisConnection<String, String> connection = null;
+    public Integer markBlockConsumed(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        StatefulConnection<String, byte[]> connection = null;
         try {
             connection = connectionPool.getConnection();
-            RedisCommands<String, String> commands = connection.sync();
-            
-            // 更新块的消费状态
-            String blockInfoKey = String.format(CacheQueueConstants.BLOCK_INFO_KEY_TEMPLATE, bizId, batchId, blockIndex);
-            commands.hset(blockInfoKey, CacheQueueConstants.BLOCK_CONSUMED, "true");
-            
-            // 增加批次的已消费块计数
-            String batchInfoKey = String.format(CacheQueueConstants.BATCH_INFO_KEY_TEMPLATE, bizId, batchId);
-            String consumedBlockCountStr = commands.hget(batchInfoKey, CacheQueueConstants.BATCH_CONSUMED_BLOCK_COUNT);
-            int consumedBlockCount = consumedBlockCountStr != null ? Integer.parseInt(consumedBlockCountStr) : 0;
-            commands.hset(batchInfoKey, CacheQueueConstants.BATCH_CONSUMED_BLOCK_COUNT, String.valueOf(consumedBlockCount + 1));
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
+
+            // 更新块的消费状态、增加批次的已消费块计数并释放租约，一次往返原子完成
+            String blockInfoKey = keys.blockInfo(bizId, batchId, blockIndex);
+            String batchInfoKey = keys.batchInfo(bizId, batchId);
+            String leasesKey = keys.leases(bizId, batchId);
+            String blockDataKey = keys.blockData(bizId, batchId, blockIndex);
+            Long consumedBlockCount = CacheQueueScripts.MARK_BLOCK_CONSUMED.execute(commands, ScriptOutputType.INTEGER,
+                    new String[]{blockInfoKey, batchInfoKey, leasesKey, blockDataKey},
+                    RedisValueUtil.asBytes(blockIndex + ":" + batchId), RedisValueUtil.asBytes(consumedTtlMillis(bizId)));
+            return consumedBlockCount.intValue();
         } catch (Exception e) {
             throw new CacheQueueException("Failed to mark block consumed", e);
         } finally {
@@ -194,27 +515,14 @@ public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E>
     
     @Override
     public Batch<E> getBatch(String bizId, String batchId) throws CacheQueueException {
-        StatefulRedisConnection<String, String> connection = null;
+        StatefulConnection<String, byte[]> connection = null;
         try {
             connection = connectionPool.getConnection();
-            RedisCommands<String, String> commands = connection.sync();
-            
-            String batchInfoKey = String.format(CacheQueueConstants.BATCH_INFO_KEY_TEMPLATE, bizId, batchId);
-            String blockSizeStr = commands.hget(batchInfoKey, CacheQueueConstants.BATCH_BLOCK_SIZE);
-            String blockCountStr = commands.hget(batchInfoKey, CacheQueueConstants.BATCH_BLOCK_COUNT);
-            String consumedBlockCountStr = commands.hget(batchInfoKey, CacheQueueConstants.BATCH_CONSUMED_BLOCK_COUNT);
-            
-            if (blockSizeStr == null || blockCountStr == null) {
-                return null;
-            }
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
             
-            Integer blockSize = Integer.valueOf(blockSizeStr);
-            Integer blockCount = Integer.valueOf(blockCountStr);
-            Integer consumedBlockCount = consumedBlockCountStr != null ? Integer.valueOf(consumedBlockCountStr) : 0;
-            
-            Batch<E> batch = new Batch<>(bizId, batchId, blockSize, blockCount);
-            batch.setConsumedBlockCount(consumedBlockCount);
-            return batch;
+            String batchInfoKey = keys.batchInfo(bizId, batchId);
+            return toBatch(bizId, batchId, commands.hmget(batchInfoKey, CacheQueueConstants.BATCH_BLOCK_SIZE,
+                    CacheQueueConstants.BATCH_BLOCK_COUNT, CacheQueueConstants.BATCH_CONSUMED_BLOCK_COUNT));
         } catch (Exception e) {
             throw new CacheQueueException("Failed to get batch", e);
         } finally {
@@ -230,37 +538,14 @@ public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E>
     
     @Override
     public Block<E> getBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
-        StatefulRedisConnection<String, String> connection = null;
+        StatefulConnection<String, byte[]> connection = null;
         try {
             connection = connectionPool.getConnection();
-            RedisCommands<String, String> commands = connection.sync();
-            
-            String blockInfoKey = String.format(CacheQueueConstants.BLOCK_INFO_KEY_TEMPLATE, bizId, batchId, blockIndex);
-            String consumedStr = commands.hget(blockInfoKey, CacheQueueConstants.BLOCK_CONSUMED);
-            
-            Block<E> block = new Block<>(blockIndex);
-            if (consumedStr != null) {
-                block.setConsumed(Boolean.parseBoolean(consumedStr));
-            }
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
             
-            // 获取块中的任务列表
-            String blockDataKey = String.format(CacheQueueConstants.BLOCK_DATA_KEY_TEMPLATE, bizId, batchId, blockIndex);
-            List<String> serializedTasks = commands.lrange(blockDataKey, 0, -1);
-            if (serializedTasks != null && !serializedTasks.isEmpty()) {
-                Queue<E> taskQueue = new LinkedList<>();
-                for (String serializedTask : serializedTasks) {
-                    try {
-                        @SuppressWarnings("unchecked")
-                        E task = (E) SerializationUtil.deserializeFromString(serializedTask);
-                        taskQueue.add(task);
-                    } catch (Exception e) {
-                        throw new CacheQueueException("Failed to deserialize task", e);
-                    }
-                }
-                block.setQueue(taskQueue);
-            }
-            
-            return block;
+            return readBlock(commands, bizId, batchId, blockIndex);
+        } catch (CacheQueueException e) {
+            throw e;
         } catch (Exception e) {
             throw new CacheQueueException("Failed to get block", e);
         } finally {
@@ -276,26 +561,20 @@ public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E>
     
     @Override
     public void removeBatch(String bizId, String batchId) throws CacheQueueException {
-        StatefulRedisConnection<String, String> connection = null;
+        if (batchCollector.add(bizId, batchId)) {
+            // 由回收线程批量删除
+            return;
+        }
+        StatefulConnection<String, byte[]> connection = null;
         try {
             connection = connectionPool.getConnection();
-            RedisCommands<String, String> commands = connection.sync();
-            
-            // 删除批次信息
-            String batchInfoKey = String.format(CacheQueueConstants.BATCH_INFO_KEY_TEMPLATE, bizId, batchId);
-            commands.del(batchInfoKey);
-            
-            // 删除批次下的所有块信息
-            Batch<E> batch = getBatch(bizId, batchId);
-            if (batch != null) {
-                for (int i = 0; i < batch.getBlockCount(); i++) {
-                    removeBlock(bizId, batchId, i);
-                }
-            }
-            
-            // 从批次队列中移除批次ID
-            String batchKey = String.format(CacheQueueConstants.BATCHES_KEY_TEMPLATE, bizId);
-            commands.lrem(batchKey, 1, batchId);
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
+
+            // 先从批次队列中移除批次ID，再删除批次的全部键
+            String batchKey = keys.batches(bizId);
+            commands.lrem(batchKey, 1, RedisValueUtil.asBytes(batchId));
+            CacheQueueScripts.REMOVE_BATCH.execute(commands, ScriptOutputType.INTEGER,
+                    removeBatchKeys(bizId, batchId), removeBatchArgs(bizId, batchId));
         } catch (Exception e) {
             throw new CacheQueueException("Failed to remove batch", e);
         } finally {
@@ -311,22 +590,22 @@ public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E>
     
     @Override
     public void removeBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
-        StatefulRedisConnection<String, String> connection = null;
+        StatefulConnection<String, byte[]> connection = null;
         try {
             connection = connectionPool.getConnection();
-            RedisCommands<String, String> commands = connection.sync();
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
             
             // 删除块信息
-            String blockInfoKey = String.format(CacheQueueConstants.BLOCK_INFO_KEY_TEMPLATE, bizId, batchId, blockIndex);
+            String blockInfoKey = keys.blockInfo(bizId, batchId, blockIndex);
             commands.del(blockInfoKey);
             
             // 删除块数据
-            String blockDataKey = String.format(CacheQueueConstants.BLOCK_DATA_KEY_TEMPLATE, bizId, batchId, blockIndex);
+            String blockDataKey = keys.blockData(bizId, batchId, blockIndex);
             commands.del(blockDataKey);
             
             // 从块队列中移除块索引
-            String blockKey = String.format(CacheQueueConstants.BLOCKS_KEY_TEMPLATE, bizId, batchId);
-            commands.lrem(blockKey, 1, String.valueOf(blockIndex));
+            String blockKey = keys.blocks(bizId, batchId);
+            commands.lrem(blockKey, 1, RedisValueUtil.asBytes(blockIndex));
         } catch (Exception e) {
             throw new CacheQueueException("Failed to remove block", e);
         } finally {
@@ -339,4 +618,597 @@ public class LettuceCacheQueue<E extends Serializable> implements CacheQueue<E>
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 在一个管道中删除同一业务的多个批次，由批次回收器调用
+     * @param bizId 业务ID
+     * @param batchIds 批次ID
+     * @throws CacheQueueException 缓存队列异常
+     */
+    public void removeBatches(String bizId, Collection<String> batchIds) throws CacheQueueException {
+        if (batchIds.isEmpty()) {
+            return;
+        }
+        StatefulConnection<String, byte[]> connection = null;
+        try {
+            connection = connectionPool.getExclusiveConnection();
+            Pipeline pipeline = commands -> {
+                List<RedisFuture<?>> futures = new ArrayList<>();
+                String batchKey = keys.batches(bizId);
+                for (String batchId : batchIds) {
+                    futures.add(commands.lrem(batchKey, 1, RedisValueUtil.asBytes(batchId)));
+                    futures.add(commands.evalsha(CacheQueueScripts.REMOVE_BATCH.getSha1(), ScriptOutputType.INTEGER,
+                            removeBatchKeys(bizId, batchId), removeBatchArgs(bizId, batchId)));
+                }
+                return futures;
+            };
+            try {
+                executePipelined(connection, pipeline);
+            } catch (RedisNoScriptException e) {
+                // Redis重启或执行了SCRIPT FLUSH，加载脚本后重新执行，删除是幂等的
+                CacheQueueScripts.REMOVE_BATCH.load(LettuceConnectionPool.sync(connection));
+                executePipelined(connection, pipeline);
+            }
+        } catch (CacheQueueException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to remove batches", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionPool.close(connection);
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除批次脚本访问的键
+     */
+    String[] removeBatchKeys(String bizId, String batchId) {
+        return new String[]{keys.batchInfo(bizId, batchId), keys.blocks(bizId, batchId), keys.blockStream(bizId, batchId),
+                keys.leases(bizId, batchId)};
+    }
+
+    /**
+     * 删除批次脚本的参数
+     */
+    byte[][] removeBatchArgs(String bizId, String batchId) {
+        return new byte[][]{RedisValueUtil.asBytes(keys.blockKeyPrefix(bizId, batchId)), RedisValueUtil.asBytes(batchId),
+                RedisValueUtil.asBytes(keys.isHashTagged() ? "1" : "0")};
+    }
+
+    /**
+     * 将租约已过期的块放回块队列，由租约回收线程定期调用
+     * @param bizId 业务ID
+     * @return 放回块队列的块数
+     * @throws CacheQueueException 缓存队列异常
+     */
+    public int requeueExpiredLeases(String bizId) throws CacheQueueException {
+        StatefulConnection<String, byte[]> connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
+
+            if (!keys.isHashTagged()) {
+                return requeueExpiredLeases(commands, bizId, keys.leases(bizId, null));
+            }
+
+            // 集群布局下每个批次一个租约集合，开启租约后批次在删除前一直留在批次队列中
+            int requeued = 0;
+            for (byte[] batchId : commands.lrange(keys.batches(bizId), 0, -1)) {
+                requeued += requeueExpiredLeases(commands, bizId, keys.leases(bizId, RedisValueUtil.asString(batchId)));
+            }
+            return requeued;
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to requeue expired leases", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionPool.close(connection);
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    private int requeueExpiredLeases(RedisClusterCommands<String, byte[]> commands, String bizId, String leasesKey) {
+        Long requeued = CacheQueueScripts.REQUEUE_EXPIRED_LEASES.execute(commands, ScriptOutputType.INTEGER,
+                new String[]{leasesKey}, RedisValueUtil.asBytes(keys.batchKeyPrefix(bizId)),
+                RedisValueUtil.asBytes(REQUEUE_LIMIT), RedisValueUtil.asBytes(keys.batchKeySuffix()));
+        return requeued.intValue();
+    }
+
+    private void removeBatchId(String bizId, String batchId) throws CacheQueueException {
+        StatefulConnection<String, byte[]> connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            String batchKey = keys.batches(bizId);
+            LettuceConnectionPool.sync(connection).lrem(batchKey, 0, RedisValueUtil.asBytes(batchId));
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to remove batch id", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionPool.close(connection);
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * 序列化待写入的批次，写入时不再序列化，序列化失败时由添加批次的调用方处理
+     * @param batch 待写入的批次
+     * @throws CacheQueueException 缓存队列异常
+     */
+    public void serializeBatch(PendingBatch<E> batch) throws CacheQueueException {
+        batch.setSerializedBlocks(serializeBatch(batch.getBizId(), batch.getBlockSize(), batch.getList()));
+    }
+
+    /**
+     * 按块大小拆分任务列表，将每个块序列化、压缩并编码为写入Redis的值
+     */
+    List<List<byte[]>> serializeBatch(String bizId, Integer blockSize, List<E> list) throws CacheQueueException {
+        int blockCount = (int) Math.ceil((double) list.size() / blockSize);
+        BlockLayout layout = blockLayout(bizId);
+        List<List<byte[]>> serializedBlocks = new ArrayList<>(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            int startIndex = i * blockSize;
+            int endIndex = Math.min(startIndex + blockSize, list.size());
+            serializedBlocks.add(serializeBlock(bizId, layout, list.subList(startIndex, endIndex)));
+        }
+        return serializedBlocks;
+    }
+
+    /**
+     * 序列化块中的任务并完成压缩和编码，在管道开始前调用，压缩失败时不会有命令留在连接中
+     * @return 块数据的值，BLOB结构只有一个值，列表结构每个任务一个值
+     */
+    List<byte[]> serializeBlock(String bizId, BlockLayout layout, List<E> list) throws CacheQueueException {
+        List<byte[]> serializedItems = serializeItems(bizId, list);
+        PayloadEncoding encoding = payloadEncoding();
+        try {
+            if (layout == BlockLayout.BLOB) {
+                // 整个块编码为一个值
+                return Collections.singletonList(
+                        encodePayload(compressPayload(bizId, BlockBlobUtil.encode(serializedItems)), encoding));
+            }
+            List<byte[]> payloads = new ArrayList<>(serializedItems.size());
+            for (byte[] serializedItem : serializedItems) {
+                payloads.add(encodePayload(compressPayload(bizId, serializedItem), encoding));
+            }
+            return payloads;
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to compress block", e);
+        }
+    }
+
+    /**
+     * 将批次信息、全部块以及批次ID写入管道，不等待结果
+     */
+    List<RedisFuture<?>> writeBatch(RedisClusterAsyncCommands<String, byte[]> commands, String bizId, String batchId,
+                                    Integer blockSize, List<List<byte[]>> serializedBlocks) {
+        List<RedisFuture<?>> futures = new ArrayList<>();
+        int blockCount = serializedBlocks.size();
+        BlockLayout layout = blockLayout(bizId);
+
+        // 保存批次信息
+        String batchInfoKey = keys.batchInfo(bizId, batchId);
+        futures.add(commands.hset(batchInfoKey, batchInfo(bizId, batchId, blockSize, blockCount)));
+
+        // 保存所有块
+        createBlockQueue(commands, futures, bizId, batchId);
+        for (int i = 0; i < blockCount; i++) {
+            writeBlock(commands, futures, bizId, batchId, i, layout, serializedBlocks.get(i));
+        }
+        expireBatch(commands, futures, bizId, batchId);
+
+        // 将批次ID添加到批次队列中
+        String batchKey = keys.batches(bizId);
+        futures.add(commands.rpush(batchKey, RedisValueUtil.asBytes(batchId)));
+        return futures;
+    }
+
+    private static Map<String, byte[]> batchInfo(String bizId, String batchId, Integer blockSize, int blockCount) {
+        Map<String, byte[]> batchInfo = new LinkedHashMap<>();
+        batchInfo.put(CacheQueueConstants.BATCH_BIZ_ID, RedisValueUtil.asBytes(bizId));
+        batchInfo.put(CacheQueueConstants.BATCH_BATCH_ID, RedisValueUtil.asBytes(batchId));
+        batchInfo.put(CacheQueueConstants.BATCH_BLOCK_SIZE, RedisValueUtil.asBytes(blockSize));
+        batchInfo.put(CacheQueueConstants.BATCH_BLOCK_COUNT, RedisValueUtil.asBytes(blockCount));
+        batchInfo.put(CacheQueueConstants.BATCH_CONSUMED_BLOCK_COUNT, RedisValueUtil.asBytes(0));
+        return batchInfo;
+    }
+
+    /**
+     * 将块的信息、数据以及块索引写入管道，不等待结果
+     * @param payloads {@link #serializeBlock}返回的块数据
+     */
+    void writeBlock(RedisClusterAsyncCommands<String, byte[]> commands, List<RedisFuture<?>> futures,
+                            String bizId, String batchId, int blockIndex, BlockLayout layout,
+                            List<byte[]> payloads) {
+        // 保存块信息
+        String blockInfoKey = keys.blockInfo(bizId, batchId, blockIndex);
+        PayloadEncoding encoding = payloadEncoding();
+        Map<String, byte[]> blockInfo = new LinkedHashMap<>();
+        blockInfo.put(CacheQueueConstants.BLOCK_INDEX, RedisValueUtil.asBytes(blockIndex));
+        blockInfo.put(CacheQueueConstants.BLOCK_CONSUMED, RedisValueUtil.asBytes("false"));
+        blockInfo.put(CacheQueueConstants.BLOCK_LAYOUT, RedisValueUtil.asBytes(layout.name()));
+        blockInfo.put(CacheQueueConstants.BLOCK_ENCODING, RedisValueUtil.asBytes(encoding.name()));
+        futures.add(commands.hset(blockInfoKey, blockInfo));
+        long ttlMillis = ttlMillis(bizId);
+        if (ttlMillis > 0) {
+            futures.add(commands.pexpire(blockInfoKey, ttlMillis));
+        }
+
+        // 保存块中的任务列表
+        String blockDataKey = keys.blockData(bizId, batchId, blockIndex);
+        if (layout == BlockLayout.BLOB) {
+            // 一次SET写入，同时设置过期时间
+            byte[] blob = payloads.get(0);
+            futures.add(ttlMillis > 0 ? commands.set(blockDataKey, blob, SetArgs.Builder.px(ttlMillis))
+                    : commands.set(blockDataKey, blob));
+        } else if (!payloads.isEmpty()) {
+            // 一次RPUSH写入全部元素
+            futures.add(commands.rpush(blockDataKey, payloads.toArray(new byte[0][])));
+            if (ttlMillis > 0) {
+                futures.add(commands.pexpire(blockDataKey, ttlMillis));
+            }
+        }
+
+        // 将块索引添加到块队列中
+        enqueueBlock(commands, futures, bizId, batchId, blockIndex);
+    }
+
+    /**
+     * 为批次信息和块队列设置过期时间，业务未配置过期时间时不设置
+     */
+    void expireBatch(RedisClusterAsyncCommands<String, byte[]> commands, List<RedisFuture<?>> futures,
+                             String bizId, String batchId) {
+        long ttlMillis = ttlMillis(bizId);
+        if (ttlMillis > 0) {
+            futures.add(commands.pexpire(keys.batchInfo(bizId, batchId), ttlMillis));
+            futures.add(commands.pexpire(blockQueueKey(bizId, batchId), ttlMillis));
+        }
+    }
+
+    /**
+     * 块队列的键
+     */
+    protected String blockQueueKey(String bizId, String batchId) {
+        return keys.blocks(bizId, batchId);
+    }
+
+    /**
+     * 创建批次的块队列，在写入批次的块之前加入管道
+     */
+    protected void createBlockQueue(RedisClusterAsyncCommands<String, byte[]> commands, List<RedisFuture<?>> futures,
+                                    String bizId, String batchId) {
+        // 列表结构的块队列在第一次RPUSH时自动创建
+    }
+
+    /**
+     * 将块索引添加到块队列中，加入管道不等待结果
+     */
+    protected void enqueueBlock(RedisClusterAsyncCommands<String, byte[]> commands, List<RedisFuture<?>> futures,
+                                String bizId, String batchId, int blockIndex) {
+        String blockKey = keys.blocks(bizId, batchId);
+        futures.add(commands.rpush(blockKey, RedisValueUtil.asBytes(blockIndex)));
+    }
+
+    /**
+     * 将领取块脚本的返回值解码为块
+     * @return 块，块队列为空时返回null
+     */
+    Block<E> toClaimedBlock(String bizId, List<Object> result) throws IOException {
+        if (result == null || result.isEmpty()) {
+            return null;
+        }
+
+        Integer blockIndex = Integer.valueOf(RedisValueUtil.asString((byte[]) result.get(0)));
+        @SuppressWarnings("unchecked")
+        List<byte[]> data = (List<byte[]>) result.get(4);
+        return toBlock(bizId, blockIndex, RedisValueUtil.asString((byte[]) result.get(1)),
+                RedisValueUtil.asString((byte[]) result.get(2)), RedisValueUtil.asString((byte[]) result.get(3)), data);
+    }
+
+    /**
+     * 将HMGET读取的blockSize、blockCount、consumedBlockCount解码为批次
+     * @return 批次，批次信息不存在时返回null
+     */
+    Batch<E> toBatch(String bizId, String batchId, List<KeyValue<String, byte[]>> batchInfo) {
+        String blockSizeStr = RedisValueUtil.asString(batchInfo.get(0).getValueOrElse(null));
+        String blockCountStr = RedisValueUtil.asString(batchInfo.get(1).getValueOrElse(null));
+        String consumedBlockCountStr = RedisValueUtil.asString(batchInfo.get(2).getValueOrElse(null));
+
+        if (blockSizeStr == null || blockCountStr == null) {
+            return null;
+        }
+
+        Integer blockSize = Integer.valueOf(blockSizeStr);
+        Integer blockCount = Integer.valueOf(blockCountStr);
+        Integer consumedBlockCount = consumedBlockCountStr != null ? Integer.valueOf(consumedBlockCountStr) : 0;
+
+        Batch<E> batch = new Batch<>(bizId, batchId, blockSize, blockCount);
+        batch.setConsumedBlockCount(consumedBlockCount);
+        return batch;
+    }
+
+    /**
+     * 在给定连接上读取块信息和块数据并解码为块
+     */
+    protected Block<E> readBlock(RedisClusterCommands<String, byte[]> commands, String bizId, String batchId,
+                                 Integer blockIndex) throws IOException {
+        String blockInfoKey = keys.blockInfo(bizId, batchId, blockIndex);
+        List<KeyValue<String, byte[]>> blockInfo = commands.hmget(blockInfoKey, CacheQueueConstants.BLOCK_CONSUMED,
+                CacheQueueConstants.BLOCK_LAYOUT, CacheQueueConstants.BLOCK_ENCODING);
+        String consumedStr = RedisValueUtil.asString(blockInfo.get(0).getValueOrElse(null));
+        String layoutStr = RedisValueUtil.asString(blockInfo.get(1).getValueOrElse(null));
+        String encodingStr = RedisValueUtil.asString(blockInfo.get(2).getValueOrElse(null));
+
+        String blockDataKey = keys.blockData(bizId, batchId, blockIndex);
+        int pageSize = pageSize(bizId);
+        List<byte[]> data;
+        if (BlockLayout.BLOB.name().equals(layoutStr)) {
+            byte[] blob = commands.get(blockDataKey);
+            data = blob != null ? Collections.singletonList(blob) : Collections.emptyList();
+        } else if (pageSize > 0) {
+            return toPagedBlock(bizId, batchId, blockIndex, consumedStr, encodingStr,
+                    commands.lrange(blockDataKey, 0, pageSize - 1), pageSize);
+        } else {
+            data = commands.lrange(blockDataKey, 0, -1);
+        }
+
+        return toBlock(bizId, blockIndex, consumedStr, layoutStr, encodingStr, data);
+    }
+
+    /**
+     * 创建分页读取的块，任务在迭代时按页读取和反序列化
+     */
+    Block<E> toPagedBlock(String bizId, String batchId, Integer blockIndex, String consumedStr, String encodingStr,
+                          List<byte[]> firstPage, int pageSize) {
+        PayloadEncoding encoding = encodingStr != null ? PayloadEncoding.valueOf(encodingStr) : PayloadEncoding.BASE64;
+        Block<E> block = new Block<>(blockIndex);
+        if (consumedStr != null) {
+            block.setConsumed(Boolean.parseBoolean(consumedStr));
+        }
+        block.setPages(new PagedBlockIterator<>(this, bizId, keys.blockData(bizId, batchId, blockIndex), encoding,
+                pageSize, firstPage));
+        return block;
+    }
+
+    /**
+     * 读取列表结构块数据的一页
+     * @param blockDataKey 块数据键
+     * @param start 起始位置
+     * @param end 结束位置，包含在内
+     * @return 块数据，超出块数据长度时返回空列表
+     * @throws CacheQueueException 缓存队列异常
+     */
+    List<byte[]> readPage(String blockDataKey, long start, long end) throws CacheQueueException {
+        StatefulConnection<String, byte[]> connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            return LettuceConnectionPool.sync(connection).lrange(blockDataKey, start, end);
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to read block page", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionPool.close(connection);
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * 解码并反序列化列表结构块数据中的一个任务
+     */
+    E decodeItem(String bizId, PayloadEncoding encoding, byte[] value) throws CacheQueueException {
+        CacheQueueCodecListener listener = codecListener;
+        long start = listener != null ? System.nanoTime() : 0L;
+        E item;
+        try {
+            item = deserializeItem(compressorRegistry.decompress(decodePayload(value, encoding)));
+        } catch (CacheQueueException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to deserialize task", e);
+        }
+        if (listener != null) {
+            listener.itemsDeserialized(bizId, 1, value.length, System.nanoTime() - start);
+        }
+        return item;
+    }
+
+    /**
+     * 将从Redis读取的块信息和块数据解码为块
+     */
+    Block<E> toBlock(String bizId, Integer blockIndex, String consumedStr, String layoutStr, String encodingStr,
+                     List<byte[]> data) throws IOException {
+        CacheQueueCodecListener listener = codecListener;
+        long start = listener != null ? System.nanoTime() : 0L;
+
+        // 未记录编码方式的块由旧版本写入，使用Base64编码
+        PayloadEncoding encoding = encodingStr != null ? PayloadEncoding.valueOf(encodingStr) : PayloadEncoding.BASE64;
+
+        Block<E> block = new Block<>(blockIndex);
+        if (consumedStr != null) {
+            block.setConsumed(Boolean.parseBoolean(consumedStr));
+        }
+
+        // 获取块中的任务列表，未记录存储结构的块按列表结构读取
+        List<byte[]> serializedTasks = new ArrayList<>();
+        if (BlockLayout.BLOB.name().equals(layoutStr)) {
+            if (!data.isEmpty()) {
+                serializedTasks = BlockBlobUtil.decode(compressorRegistry.decompress(decodePayload(data.get(0), encoding)));
+            }
+        } else {
+            for (byte[] serializedTask : data) {
+                serializedTasks.add(compressorRegistry.decompress(decodePayload(serializedTask, encoding)));
+            }
+        }
+
+        if (!serializedTasks.isEmpty()) {
+            Queue<E> taskQueue = new LinkedList<>();
+            for (byte[] serializedTask : serializedTasks) {
+                taskQueue.add(deserializeItem(serializedTask));
+            }
+            block.setQueue(taskQueue);
+        }
+
+        if (listener != null) {
+            long bytes = 0;
+            for (byte[] value : data) {
+                bytes += value.length;
+            }
+            listener.itemsDeserialized(bizId, serializedTasks.size(), bytes, System.nanoTime() - start);
+        }
+        return block;
+    }
+
+    List<byte[]> serializeItems(String bizId, List<E> list) throws CacheQueueException {
+        CacheQueueCodecListener listener = codecListener;
+        long start = listener != null ? System.nanoTime() : 0L;
+
+        CacheQueueSerializer serializer = serializerRegistry.getSerializer(serializerName(bizId));
+        List<byte[]> serializedItems = new ArrayList<>(list.size());
+        long bytes = 0;
+        for (E item : list) {
+            try {
+                byte[] serializedItem = serializerRegistry.serialize(serializer, item);
+                serializedItems.add(serializedItem);
+                bytes += serializedItem.length;
+            } catch (Exception e) {
+                throw new CacheQueueException("Failed to serialize item", e);
+            }
+        }
+
+        if (listener != null) {
+            listener.itemsSerialized(bizId, serializedItems.size(), bytes, System.nanoTime() - start);
+        }
+        return serializedItems;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E deserializeItem(byte[] data) throws CacheQueueException {
+        try {
+            return (E) serializerRegistry.deserialize(data);
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to deserialize task", e);
+        }
+    }
+
+    private byte[] compressPayload(String bizId, byte[] payload) throws IOException {
+        CacheQueueProperties.Biz biz = properties.findBiz(bizId);
+        CacheQueueProperties.Compression compression = biz != null ? biz.getCompression() : null;
+        if (compression == null) {
+            return payload;
+        }
+        BlockCompressor compressor = compressorRegistry.getCompressor(compression.getAlgorithm());
+        return compressorRegistry.compress(compressor, compression.getLevel(), compression.getMinSize(), payload);
+    }
+
+    private byte[] encodePayload(byte[] payload, PayloadEncoding encoding) {
+        return encoding == PayloadEncoding.BASE64 ? Base64.getEncoder().encode(payload) : payload;
+    }
+
+    private byte[] decodePayload(byte[] payload, PayloadEncoding encoding) {
+        return encoding == PayloadEncoding.BASE64 ? Base64.getDecoder().decode(payload) : payload;
+    }
+
+    private PayloadEncoding payloadEncoding() {
+        CacheQueueProperties.Config config = properties.getConfig();
+        if (config == null || config.getPayloadEncoding() == null) {
+            return PayloadEncoding.RAW;
+        }
+        return config.getPayloadEncoding();
+    }
+
+    private String serializerName(String bizId) {
+        CacheQueueProperties.Biz biz = properties.findBiz(bizId);
+        return biz != null ? biz.getSerializer() : null;
+    }
+
+    /**
+     * 批次是否由多个消费者共享：共享时批次在删除前一直留在批次队列中，否则领取批次时直接出队
+     */
+    protected boolean sharedBatches(String bizId) {
+        return leaseMillis(bizId) > 0;
+    }
+
+    protected long leaseMillis(String bizId) {
+        CacheQueueProperties.Biz biz = properties.findBiz(bizId);
+        return biz != null ? biz.getLeaseMillis() : 0;
+    }
+
+    /**
+     * 批次和块的键的过期时间，0为不过期
+     */
+    protected long ttlMillis(String bizId) {
+        CacheQueueProperties.Biz biz = properties.findBiz(bizId);
+        return biz != null ? biz.getTtlMillis() : 0;
+    }
+
+    /**
+     * 块数据在块被标记为已消费后的过期时间，小于0时不修改
+     */
+    protected long consumedTtlMillis(String bizId) {
+        CacheQueueProperties.Biz biz = properties.findBiz(bizId);
+        return biz != null ? biz.getConsumedTtlMillis() : -1;
+    }
+
+    /**
+     * 读取列表结构的块时每页的任务数，0为一次读取整个块
+     */
+    protected int pageSize(String bizId) {
+        CacheQueueProperties.Biz biz = properties.findBiz(bizId);
+        return biz != null ? biz.getPageSize() : 0;
+    }
+
+    BlockLayout blockLayout(String bizId) {
+        CacheQueueProperties.Biz biz = properties.findBiz(bizId);
+        if (biz == null || biz.getBlockLayout() == null) {
+            return BlockLayout.LIST;
+        }
+        return biz.getBlockLayout();
+    }
+
+    /**
+     * 关闭自动刷新后将一组命令写入同一连接，一次性刷新到Redis并等待全部结果
+     * @throws UncertainWriteException 命令已发送但等待超时或部分命令失败，已执行的命令不会回滚
+     */
+    private void executePipelined(StatefulConnection<String, byte[]> connection,
+                                  Pipeline pipeline) throws IOException {
+        List<RedisFuture<?>> futures;
+        connection.setAutoFlushCommands(false);
+        try {
+            futures = pipeline.apply(LettuceConnectionPool.async(connection));
+            connection.flushCommands();
+        } finally {
+            connection.setAutoFlushCommands(true);
+        }
+
+        boolean completed;
+        try {
+            completed = LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]));
+        } catch (RuntimeException e) {
+            throw new UncertainWriteException("Pipelined commands failed, some may have been applied", e);
+        }
+        if (!completed) {
+            throw new UncertainWriteException("Timed out waiting for pipelined commands", new TimeoutException());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Pipeline {
+
+        List<RedisFuture<?>> apply(RedisClusterAsyncCommands<String, byte[]> commands) throws IOException;
+    }
+}
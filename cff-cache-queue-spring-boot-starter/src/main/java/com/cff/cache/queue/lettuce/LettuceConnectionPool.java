@@ -1,29 +1,225 @@
 package com.cff.cache.queue.lettuce;
 
+import io.lettuce.core.api.StatefulConnection;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class LettuceConnectionPool {
 
     private static final Logger logger = LoggerFactory.getLogger(LettuceConnectionPool.class);
 
-    private final GenericObjectPool<StatefulRedisConnection<String, String>> connectionPool;
+    /**
+     * 连接使用的编解码器：键为UTF-8字符串，值为原始字节
+     */
+    public static final RedisCodec<String, byte[]> CODEC = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+
+    /**
+     * 默认的连接池名称，阻塞命令连接池的名称为该名称加"-blocking"后缀
+     */
+    public static final String DEFAULT_NAME = "cache-queue";
+
+    private final GenericObjectPool<StatefulConnection<String, byte[]>> connectionPool;
+
+    private final GenericObjectPool<StatefulConnection<String, byte[]>> blockingConnectionPool;
+
+    private final List<? extends StatefulConnection<String, byte[]>> sharedConnections;
+
+    private final AtomicInteger nextSharedConnection = new AtomicInteger();
+
+    private final List<ConnectionPoolListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile String name = DEFAULT_NAME;
+
+    public LettuceConnectionPool(GenericObjectPool<? extends StatefulConnection<String, byte[]>> connectionPool) {
+        this(connectionPool, null);
+    }
+
+    /**
+     * @param connectionPool 执行普通命令的连接池
+     * @param blockingConnectionPool 执行BLPOP等阻塞命令的独立连接池，为null时阻塞命令也使用普通连接池
+     */
+    public LettuceConnectionPool(GenericObjectPool<? extends StatefulConnection<String, byte[]>> connectionPool,
+                                 GenericObjectPool<? extends StatefulConnection<String, byte[]>> blockingConnectionPool) {
+        this(connectionPool, blockingConnectionPool, Collections.emptyList());
+    }
+
+    /**
+     * @param connectionPool 执行普通命令的连接池
+     * @param blockingConnectionPool 执行BLPOP等阻塞命令的独立连接池，为null时阻塞命令也使用普通连接池
+     * @param sharedConnections 共享的多路复用连接，不为空时普通命令轮流使用这些连接，不再从连接池借用
+     */
+    @SuppressWarnings("unchecked")
+    public LettuceConnectionPool(GenericObjectPool<? extends StatefulConnection<String, byte[]>> connectionPool,
+                                 GenericObjectPool<? extends StatefulConnection<String, byte[]>> blockingConnectionPool,
+                                 List<? extends StatefulConnection<String, byte[]>> sharedConnections) {
+        // 连接池只借出和归还本身创建的连接，单机连接和集群连接共用同一套逻辑
+        this.connectionPool = (GenericObjectPool<StatefulConnection<String, byte[]>>) connectionPool;
+        this.blockingConnectionPool = (GenericObjectPool<StatefulConnection<String, byte[]>>) blockingConnectionPool;
+        this.sharedConnections = sharedConnections;
+    }
+
+    /**
+     * 获取连接的同步命令，单机连接和Redis Cluster连接都可以使用
+     */
+    public static RedisClusterCommands<String, byte[]> sync(StatefulConnection<String, byte[]> connection) {
+        if (connection instanceof StatefulRedisClusterConnection) {
+            return ((StatefulRedisClusterConnection<String, byte[]>) connection).sync();
+        }
+        return ((StatefulRedisConnection<String, byte[]>) connection).sync();
+    }
+
+    /**
+     * 获取连接的异步命令，单机连接和Redis Cluster连接都可以使用
+     */
+    public static RedisClusterAsyncCommands<String, byte[]> async(StatefulConnection<String, byte[]> connection) {
+        if (connection instanceof StatefulRedisClusterConnection) {
+            return ((StatefulRedisClusterConnection<String, byte[]>) connection).async();
+        }
+        return ((StatefulRedisConnection<String, byte[]>) connection).async();
+    }
+
+    /**
+     * 获取执行普通命令的连接，共享模式下返回共享连接，调用方不能修改连接状态
+     */
+    public StatefulConnection<String, byte[]> getConnection() throws Exception {
+        if (!sharedConnections.isEmpty()) {
+            return sharedConnections.get(Math.floorMod(nextSharedConnection.getAndIncrement(), sharedConnections.size()));
+        }
+        return borrow(connectionPool, name);
+    }
 
-    public LettuceConnectionPool(GenericObjectPool<StatefulRedisConnection<String, String>> connectionPool) {
-        this.connectionPool = connectionPool;
+    /**
+     * 从连接池借用独占的连接，用于关闭自动刷新的管道等会修改连接状态的操作
+     */
+    public StatefulConnection<String, byte[]> getExclusiveConnection() throws Exception {
+        return borrow(connectionPool, name);
     }
 
-    public StatefulRedisConnection<String, String> getConnection() throws Exception {
-        return connectionPool.borrowObject();
+    public boolean isShared() {
+        return !sharedConnections.isEmpty();
     }
 
-    public void close(StatefulRedisConnection<String, String> connection) {
+    public void close(StatefulConnection<String, byte[]> connection) {
+        if (isSharedConnection(connection)) {
+            // 共享连接不归还连接池
+            return;
+        }
         try {
             connectionPool.returnObject(connection);
         } catch (Exception e) {
             logger.error("Returning connection to pool error", e);
         }
     }
+
+    /**
+     * 获取执行阻塞命令的连接，阻塞期间不占用普通连接池中的连接
+     */
+    public StatefulConnection<String, byte[]> getBlockingConnection() throws Exception {
+        return blockingConnectionPool != null ? borrow(blockingConnectionPool, getBlockingName()) : borrow(connectionPool, name);
+    }
+
+    public void closeBlockingConnection(StatefulConnection<String, byte[]> connection) {
+        if (blockingConnectionPool == null) {
+            close(connection);
+            return;
+        }
+        try {
+            blockingConnectionPool.returnObject(connection);
+        } catch (Exception e) {
+            logger.error("Returning blocking connection to pool error", e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 设置连接池名称，作为监控指标的标签区分多个连接池
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getBlockingName() {
+        return name + "-blocking";
+    }
+
+    public void addListener(ConnectionPoolListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 执行普通命令的连接池，用于读取连接数等统计信息
+     */
+    public GenericObjectPool<? extends StatefulConnection<String, byte[]>> getObjectPool() {
+        return connectionPool;
+    }
+
+    /**
+     * 执行阻塞命令的连接池，未单独配置时为null
+     */
+    public GenericObjectPool<? extends StatefulConnection<String, byte[]>> getBlockingObjectPool() {
+        return blockingConnectionPool;
+    }
+
+    /**
+     * 关闭共享连接
+     */
+    public void shutdown() {
+        for (StatefulConnection<String, byte[]> connection : sharedConnections) {
+            try {
+                connection.close();
+            } catch (Exception e) {
+                logger.error("Closing shared connection error", e);
+            }
+        }
+    }
+
+    private StatefulConnection<String, byte[]> borrow(GenericObjectPool<StatefulConnection<String, byte[]>> pool,
+                                                      String poolName) throws Exception {
+        if (listeners.isEmpty()) {
+            return pool.borrowObject();
+        }
+        long start = System.nanoTime();
+        StatefulConnection<String, byte[]> connection;
+        try {
+            connection = pool.borrowObject();
+        } catch (NoSuchElementException e) {
+            // 连接池已满且等待超时
+            long waitNanos = System.nanoTime() - start;
+            for (ConnectionPoolListener listener : listeners) {
+                listener.borrowTimedOut(poolName, waitNanos);
+            }
+            throw e;
+        }
+        long waitNanos = System.nanoTime() - start;
+        for (ConnectionPoolListener listener : listeners) {
+            listener.connectionBorrowed(poolName, waitNanos);
+        }
+        return connection;
+    }
+
+    private boolean isSharedConnection(StatefulConnection<String, byte[]> connection) {
+        for (StatefulConnection<String, byte[]> sharedConnection : sharedConnections) {
+            if (sharedConnection == connection) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,68 @@
+package com.cff.cache.queue.lettuce;
+
+import com.cff.cache.queue.AsyncCacheQueue;
+import com.cff.cache.queue.ReactiveCacheQueue;
+import com.cff.cache.queue.model.Batch;
+import com.cff.cache.queue.model.Block;
+import reactor.core.publisher.Mono;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 基于{@link LettuceAsyncCacheQueue}的ReactiveCacheQueue实现
+ * <p>每次订阅时才发送命令，结果为null的操作返回空的Mono</p>
+ */
+public class LettuceReactiveCacheQueue<E extends Serializable> implements ReactiveCacheQueue<E> {
+
+    private final AsyncCacheQueue<E> asyncCacheQueue;
+
+    public LettuceReactiveCacheQueue(AsyncCacheQueue<E> asyncCacheQueue) {
+        this.asyncCacheQueue = asyncCacheQueue;
+    }
+
+    @Override
+    public Mono<Batch<E>> nextBatch(String bizId) {
+        return Mono.fromCompletionStage(() -> asyncCacheQueue.nextBatch(bizId));
+    }
+
+    @Override
+    public Mono<Block<E>> nextBlock(String bizId, String batchId) {
+        return Mono.fromCompletionStage(() -> asyncCacheQueue.nextBlock(bizId, batchId));
+    }
+
+    @Override
+    public Mono<Void> addBatch(String bizId, String batchId, Integer blockSize, List<E> list) {
+        return Mono.fromCompletionStage(() -> asyncCacheQueue.addBatch(bizId, batchId, blockSize, list));
+    }
+
+    @Override
+    public Mono<Void> addBlock(String bizId, String batchId, Integer blockIndex, List<E> list) {
+        return Mono.fromCompletionStage(() -> asyncCacheQueue.addBlock(bizId, batchId, blockIndex, list));
+    }
+
+    @Override
+    public Mono<Integer> markBlockConsumed(String bizId, String batchId, Integer blockIndex) {
+        return Mono.fromCompletionStage(() -> asyncCacheQueue.markBlockConsumed(bizId, batchId, blockIndex));
+    }
+
+    @Override
+    public Mono<Batch<E>> getBatch(String bizId, String batchId) {
+        return Mono.fromCompletionStage(() -> asyncCacheQueue.getBatch(bizId, batchId));
+    }
+
+    @Override
+    public Mono<Block<E>> getBlock(String bizId, String batchId, Integer blockIndex) {
+        return Mono.fromCompletionStage(() -> asyncCacheQueue.getBlock(bizId, batchId, blockIndex));
+    }
+
+    @Override
+    public Mono<Void> removeBatch(String bizId, String batchId) {
+        return Mono.fromCompletionStage(() -> asyncCacheQueue.removeBatch(bizId, batchId));
+    }
+
+    @Override
+    public Mono<Void> removeBlock(String bizId, String batchId, Integer blockIndex) {
+        return Mono.fromCompletionStage(() -> asyncCacheQueue.removeBlock(bizId, batchId, blockIndex));
+    }
+}
@@ -0,0 +1,180 @@
+package com.cff.cache.queue.lettuce;
+
+import com.cff.cache.queue.autoconfigure.CacheQueueProperties;
+import com.cff.cache.queue.compress.BlockCompressorRegistry;
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.model.Block;
+import com.cff.cache.queue.serializer.CacheQueueSerializerRegistry;
+import com.cff.cache.queue.util.CacheQueueConstants;
+import com.cff.cache.queue.util.RedisValueUtil;
+import io.lettuce.core.ClaimedMessages;
+import io.lettuce.core.Consumer;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAddArgs;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.XGroupCreateArgs;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于Redis Streams的CacheQueue实现
+ * <p>批次的块索引写入块流，消费者通过消费者组使用XREADGROUP领取块，标记块为已消费时XACK确认。
+ * 消费者宕机时未确认的块在空闲超过租约时长后由其他消费者通过XAUTOCLAIM接管。
+ * 块信息和块数据的存储与{@link LettuceCacheQueue}相同。</p>
+ * <p>块在流中的消息ID为"块索引-1"，同一批次的块必须按块索引递增的顺序添加。</p>
+ */
+public class LettuceStreamCacheQueue<E extends Serializable> extends LettuceCacheQueue<E> {
+
+    /**
+     * 未配置租约时长时，未确认的块被其他消费者接管前的空闲时间
+     */
+    private static final long DEFAULT_CLAIM_IDLE_MILLIS = 60000;
+
+    private final String consumerName;
+
+    public LettuceStreamCacheQueue(LettuceConnectionPool connectionPool, CacheQueueProperties properties,
+                                   CacheQueueSerializerRegistry serializerRegistry,
+                                   BlockCompressorRegistry compressorRegistry) {
+        super(connectionPool, properties, serializerRegistry, compressorRegistry);
+        CacheQueueProperties.Config config = properties.getConfig();
+        String configuredName = config != null ? config.getStreamConsumerName() : null;
+        this.consumerName = configuredName != null && !configuredName.isEmpty()
+                ? configuredName : ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    @Override
+    protected boolean usesLeaseReaper() {
+        // 由XAUTOCLAIM接管未确认的块，不需要租约回收线程
+        return false;
+    }
+
+    @Override
+    public Block<E> nextBlock(String bizId, String batchId) throws CacheQueueException {
+        StatefulConnection<String, byte[]> connection = null;
+        try {
+            connection = getConnectionPool().getConnection();
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
+
+            String streamKey = getKeys().blockStream(bizId, batchId);
+            Consumer<String> consumer = Consumer.from(CacheQueueConstants.STREAM_GROUP, consumerName);
+
+            // 优先领取新的块，没有新的块时接管其他消费者超时未确认的块
+            String messageId = null;
+            List<StreamMessage<String, byte[]>> messages = commands.xreadgroup(consumer, XReadArgs.Builder.count(1),
+                    XReadArgs.StreamOffset.lastConsumed(streamKey));
+            if (messages != null && !messages.isEmpty()) {
+                messageId = messages.get(0).getId();
+            } else {
+                ClaimedMessages<String, byte[]> claimed = commands.xautoclaim(streamKey,
+                        XAutoClaimArgs.Builder.xautoclaim(consumer, Duration.ofMillis(claimIdleMillis(bizId)), "0-0").count(1));
+                if (claimed != null && !claimed.getMessages().isEmpty()) {
+                    messageId = claimed.getMessages().get(0).getId();
+                }
+            }
+
+            if (messageId == null) {
+                return null;
+            }
+            return readBlock(commands, bizId, batchId, blockIndexOf(messageId));
+        } catch (RedisCommandExecutionException e) {
+            // 批次已删除，消费者组随块流一起被删除
+            if (e.getMessage() != null && e.getMessage().startsWith("NOGROUP")) {
+                return null;
+            }
+            throw new CacheQueueException("Failed to get next block", e);
+        } catch (CacheQueueException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to get next block", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    getConnectionPool().close(connection);
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    public Integer markBlockConsumed(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        StatefulConnection<String, byte[]> connection = null;
+        try {
+            connection = getConnectionPool().getConnection();
+            RedisClusterCommands<String, byte[]> commands = LettuceConnectionPool.sync(connection);
+
+            // 更新块的消费状态、增加批次的已消费块计数并确认消息，一次往返原子完成
+            String blockInfoKey = getKeys().blockInfo(bizId, batchId, blockIndex);
+            String batchInfoKey = getKeys().batchInfo(bizId, batchId);
+            String streamKey = getKeys().blockStream(bizId, batchId);
+            String blockDataKey = getKeys().blockData(bizId, batchId, blockIndex);
+            Long consumedBlockCount = CacheQueueScripts.STREAM_MARK_BLOCK_CONSUMED.execute(commands, ScriptOutputType.INTEGER,
+                    new String[]{blockInfoKey, batchInfoKey, streamKey, blockDataKey},
+                    RedisValueUtil.asBytes(CacheQueueConstants.STREAM_GROUP), RedisValueUtil.asBytes(messageIdOf(blockIndex)),
+                    RedisValueUtil.asBytes(consumedTtlMillis(bizId)));
+            return consumedBlockCount.intValue();
+        } catch (Exception e) {
+            throw new CacheQueueException("Failed to mark block consumed", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    getConnectionPool().close(connection);
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean sharedBatches(String bizId) {
+        // 多个消费者通过消费者组共同消费同一批次
+        return true;
+    }
+
+    @Override
+    protected String blockQueueKey(String bizId, String batchId) {
+        return getKeys().blockStream(bizId, batchId);
+    }
+
+    @Override
+    protected void createBlockQueue(RedisClusterAsyncCommands<String, byte[]> commands, List<RedisFuture<?>> futures,
+                                    String bizId, String batchId) {
+        String streamKey = getKeys().blockStream(bizId, batchId);
+        futures.add(commands.xgroupCreate(XReadArgs.StreamOffset.from(streamKey, "0-0"), CacheQueueConstants.STREAM_GROUP,
+                XGroupCreateArgs.Builder.mkstream()));
+    }
+
+    @Override
+    protected void enqueueBlock(RedisClusterAsyncCommands<String, byte[]> commands, List<RedisFuture<?>> futures,
+                                String bizId, String batchId, int blockIndex) {
+        String streamKey = getKeys().blockStream(bizId, batchId);
+        futures.add(commands.xadd(streamKey, XAddArgs.Builder.id(messageIdOf(blockIndex)),
+                Collections.singletonMap(CacheQueueConstants.BLOCK_INDEX, RedisValueUtil.asBytes(blockIndex))));
+    }
+
+    private long claimIdleMillis(String bizId) {
+        long leaseMillis = leaseMillis(bizId);
+        return leaseMillis > 0 ? leaseMillis : DEFAULT_CLAIM_IDLE_MILLIS;
+    }
+
+    private static String messageIdOf(int blockIndex) {
+        return blockIndex + "-1";
+    }
+
+    private static int blockIndexOf(String messageId) {
+        return Integer.parseInt(messageId.substring(0, messageId.indexOf('-')));
+    }
+}
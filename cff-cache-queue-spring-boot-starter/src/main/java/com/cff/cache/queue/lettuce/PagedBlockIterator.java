@@ -0,0 +1,73 @@
+package com.cff.cache.queue.lettuce;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 按页读取列表结构的块数据，每页使用一次LRANGE读取，迭代到的任务才反序列化
+ * <p>第一页随块一起读取，当前页的任务全部返回后再读取下一页，读到的页不足一页时结束。
+ * 读取失败时抛出{@link com.cff.cache.queue.exception.CacheQueueException}。</p>
+ */
+class PagedBlockIterator<E extends Serializable> implements Iterator<E> {
+
+    private final LettuceCacheQueue<E> cacheQueue;
+
+    private final String bizId;
+
+    private final String blockDataKey;
+
+    private final PayloadEncoding encoding;
+
+    private final int pageSize;
+
+    private List<byte[]> page;
+
+    private int position;
+
+    /**
+     * 下一页的起始位置
+     */
+    private long offset;
+
+    private boolean lastPage;
+
+    PagedBlockIterator(LettuceCacheQueue<E> cacheQueue, String bizId, String blockDataKey, PayloadEncoding encoding,
+                       int pageSize, List<byte[]> firstPage) {
+        this.cacheQueue = cacheQueue;
+        this.bizId = bizId;
+        this.blockDataKey = blockDataKey;
+        this.encoding = encoding;
+        this.pageSize = pageSize;
+        this.page = new ArrayList<>(firstPage);
+        this.offset = firstPage.size();
+        this.lastPage = firstPage.size() < pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (position >= page.size()) {
+            if (lastPage) {
+                return false;
+            }
+            page = new ArrayList<>(cacheQueue.readPage(blockDataKey, offset, offset + pageSize - 1));
+            position = 0;
+            offset += page.size();
+            lastPage = page.size() < pageSize;
+        }
+        return true;
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        byte[] value = page.get(position);
+        // 释放已返回的任务数据
+        page.set(position++, null);
+        return cacheQueue.decodeItem(bizId, encoding, value);
+    }
+}
@@ -0,0 +1,17 @@
+package com.cff.cache.queue.lettuce;
+
+/**
+ * 任务数据写入Redis时的编码方式
+ */
+public enum PayloadEncoding {
+
+    /**
+     * 序列化后的字节原样写入Redis
+     */
+    RAW,
+
+    /**
+     * 序列化后的字节经Base64编码后写入，兼容尚未升级的旧版本消费者
+     */
+    BASE64
+}
@@ -0,0 +1,116 @@
+package com.cff.cache.queue.lettuce;
+
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Lua脚本，使用EVALSHA执行，服务端缓存丢失脚本时自动重新加载
+ */
+public class RedisScript {
+
+    private final String name;
+
+    private final String source;
+
+    private final String sha1;
+
+    public RedisScript(String name, String source) {
+        this.name = name;
+        this.source = source;
+        this.sha1 = sha1Hex(source);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    /**
+     * 将脚本加载到Redis的脚本缓存中
+     * @param commands Redis命令
+     */
+    public void load(RedisClusterCommands<String, byte[]> commands) {
+        commands.scriptLoad(source);
+    }
+
+    /**
+     * 执行脚本，收到NOSCRIPT时重新加载脚本后再执行一次
+     * @param commands Redis命令
+     * @param type 返回值类型
+     * @param keys 脚本访问的键
+     * @param args 脚本参数
+     * @return 脚本返回值
+     */
+    public <T> T execute(RedisClusterCommands<String, byte[]> commands, ScriptOutputType type,
+                         String[] keys, byte[]... args) {
+        try {
+            return commands.evalsha(sha1, type, keys, args);
+        } catch (RedisNoScriptException e) {
+            // Redis重启或执行了SCRIPT FLUSH
+            load(commands);
+            return commands.evalsha(sha1, type, keys, args);
+        }
+    }
+
+    /**
+     * 异步执行脚本，收到NOSCRIPT时使用EVAL执行一次，同时将脚本加载到Redis的脚本缓存中
+     * @param commands Redis异步命令
+     * @param type 返回值类型
+     * @param keys 脚本访问的键
+     * @param args 脚本参数
+     * @return 脚本返回值
+     */
+    public <T> CompletionStage<T> executeAsync(RedisClusterAsyncCommands<String, byte[]> commands, ScriptOutputType type,
+                                               String[] keys, byte[]... args) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        commands.<T>evalsha(sha1, type, keys, args).whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (unwrap(error) instanceof RedisNoScriptException) {
+                commands.<T>eval(source, type, keys, args).whenComplete((retryValue, retryError) -> {
+                    if (retryError == null) {
+                        result.complete(retryValue);
+                    } else {
+                        result.completeExceptionally(unwrap(retryError));
+                    }
+                });
+            } else {
+                result.completeExceptionally(unwrap(error));
+            }
+        });
+        return result;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static String sha1Hex(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.cff.cache.queue.memory;
+
+import com.cff.cache.queue.CacheQueue;
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.model.Batch;
+import com.cff.cache.queue.model.Block;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于进程内存的CacheQueue实现，批次和块的语义与{@link com.cff.cache.queue.lettuce.LettuceCacheQueue}相同
+ * <p>只使用并发队列、并发哈希表和原子计数器，没有全局锁。任务不经过序列化，
+ * 块中保存的是生产者传入的任务对象，生产者在添加后不应再修改这些对象。</p>
+ * <p>数据只在当前进程内可见，进程退出后丢失，适用于单节点部署、对延迟敏感的流水线以及不依赖Redis的测试。</p>
+ */
+public class InMemoryCacheQueue<E extends Serializable> implements CacheQueue<E> {
+
+    private final Map<String, BizQueue<E>> bizQueues = new ConcurrentHashMap<>();
+
+    @Override
+    public Batch<E> nextBatch(String bizId) throws CacheQueueException {
+        BizQueue<E> bizQueue = bizQueue(bizId);
+        String batchId;
+        while ((batchId = bizQueue.batchIds.poll()) != null) {
+            Batch<E> batch = getBatch(bizId, batchId);
+            if (batch != null) {
+                return batch;
+            }
+            // 批次已被删除，跳过残留的批次ID
+        }
+        return null;
+    }
+
+    @Override
+    public Batch<E> awaitBatch(String bizId, long timeoutMillis) throws CacheQueueException {
+        BizQueue<E> bizQueue = bizQueue(bizId);
+        // 超时时间为0时一直等待，直到有批次入队或线程被中断
+        boolean unbounded = timeoutMillis == 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Thread current = Thread.currentThread();
+        while (true) {
+            Batch<E> batch = nextBatch(bizId);
+            if (batch != null) {
+                return batch;
+            }
+            long remaining = deadline - System.nanoTime();
+            if ((!unbounded && remaining <= 0) || current.isInterrupted()) {
+                return null;
+            }
+
+            // 先登记再检查一次，避免错过登记前入队的批次
+            bizQueue.waiters.add(current);
+            try {
+                batch = nextBatch(bizId);
+                if (batch != null) {
+                    return batch;
+                }
+                if (unbounded) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, remaining);
+                }
+            } finally {
+                bizQueue.waiters.remove(current);
+            }
+        }
+    }
+
+    @Override
+    public Block<E> nextBlock(String bizId, String batchId) throws CacheQueueException {
+        BatchEntry<E> batchEntry = bizQueue(bizId).batches.get(batchId);
+        if (batchEntry == null) {
+            return null;
+        }
+        Integer blockIndex;
+        while ((blockIndex = batchEntry.blockIndexes.poll()) != null) {
+            BlockEntry<E> blockEntry = batchEntry.blocks.get(blockIndex);
+            if (blockEntry != null) {
+                return blockEntry.toBlock(blockIndex);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void addBatch(String bizId, String batchId, Integer blockSize, List<E> list) throws CacheQueueException {
+        int blockCount = (int) Math.ceil((double) list.size() / blockSize);
+        BatchEntry<E> batchEntry = new BatchEntry<>(blockSize, blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            int startIndex = i * blockSize;
+            int endIndex = Math.min(startIndex + blockSize, list.size());
+            batchEntry.addBlock(i, list.subList(startIndex, endIndex));
+        }
+
+        // 批次的全部块就绪后才对消费者可见
+        BizQueue<E> bizQueue = bizQueue(bizId);
+        bizQueue.batches.put(batchId, batchEntry);
+        bizQueue.batchIds.offer(batchId);
+        for (Thread waiter : bizQueue.waiters) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    @Override
+    public void addBlock(String bizId, String batchId, Integer blockIndex, List<E> list) throws CacheQueueException {
+        BatchEntry<E> batchEntry = bizQueue(bizId).batches.get(batchId);
+        if (batchEntry == null) {
+            throw new CacheQueueException("Batch " + batchId + " does not exist");
+        }
+        batchEntry.addBlock(blockIndex, list);
+    }
+
+    @Override
+    public Integer markBlockConsumed(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        BatchEntry<E> batchEntry = bizQueue(bizId).batches.get(batchId);
+        if (batchEntry == null) {
+            return 0;
+        }
+        BlockEntry<E> blockEntry = batchEntry.blocks.get(blockIndex);
+        // 块已被标记过时不重复计数
+        if (blockEntry != null && blockEntry.consumed.compareAndSet(false, true)) {
+            return batchEntry.consumedBlockCount.incrementAndGet();
+        }
+        return batchEntry.consumedBlockCount.get();
+    }
+
+    @Override
+    public Batch<E> getBatch(String bizId, String batchId) throws CacheQueueException {
+        BatchEntry<E> batchEntry = bizQueue(bizId).batches.get(batchId);
+        if (batchEntry == null) {
+            return null;
+        }
+        Batch<E> batch = new Batch<>(bizId, batchId, batchEntry.blockSize, batchEntry.blockCount);
+        batch.setConsumedBlockCount(batchEntry.consumedBlockCount.get());
+        return batch;
+    }
+
+    @Override
+    public Block<E> getBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        BatchEntry<E> batchEntry = bizQueue(bizId).batches.get(batchId);
+        BlockEntry<E> blockEntry = batchEntry != null ? batchEntry.blocks.get(blockIndex) : null;
+        return blockEntry != null ? blockEntry.toBlock(blockIndex) : null;
+    }
+
+    @Override
+    public void removeBatch(String bizId, String batchId) throws CacheQueueException {
+        BizQueue<E> bizQueue = bizQueue(bizId);
+        bizQueue.batches.remove(batchId);
+        bizQueue.batchIds.remove(batchId);
+    }
+
+    @Override
+    public void removeBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        BatchEntry<E> batchEntry = bizQueue(bizId).batches.get(batchId);
+        if (batchEntry != null) {
+            batchEntry.blocks.remove(blockIndex);
+            batchEntry.blockIndexes.remove(blockIndex);
+        }
+    }
+
+    private BizQueue<E> bizQueue(String bizId) {
+        return bizQueues.computeIfAbsent(bizId, id -> new BizQueue<>());
+    }
+
+    /**
+     * 一个业务的批次队列
+     */
+    private static class BizQueue<E extends Serializable> {
+
+        private final Queue<String> batchIds = new ConcurrentLinkedQueue<>();
+
+        private final Map<String, BatchEntry<E>> batches = new ConcurrentHashMap<>();
+
+        /**
+         * 在awaitBatch中等待批次的线程
+         */
+        private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+    }
+
+    private static class BatchEntry<E extends Serializable> {
+
+        private final int blockSize;
+
+        private final int blockCount;
+
+        private final AtomicInteger consumedBlockCount = new AtomicInteger();
+
+        private final Queue<Integer> blockIndexes = new ConcurrentLinkedQueue<>();
+
+        private final Map<Integer, BlockEntry<E>> blocks = new ConcurrentHashMap<>();
+
+        BatchEntry(int blockSize, int blockCount) {
+            this.blockSize = blockSize;
+            this.blockCount = blockCount;
+        }
+
+        void addBlock(int blockIndex, List<E> items) {
+            blocks.put(blockIndex, new BlockEntry<>(new ArrayList<>(items)));
+            blockIndexes.offer(blockIndex);
+        }
+    }
+
+    private static class BlockEntry<E extends Serializable> {
+
+        private final List<E> items;
+
+        private final AtomicBoolean consumed = new AtomicBoolean();
+
+        BlockEntry(List<E> items) {
+            this.items = items;
+        }
+
+        /**
+         * 每次领取返回新的块对象，消费者修改块的任务队列不影响保存的数据
+         */
+        Block<E> toBlock(int blockIndex) {
+            Block<E> block = new Block<>(blockIndex);
+            block.setConsumed(consumed.get());
+            if (!items.isEmpty()) {
+                block.setQueue(new LinkedList<>(items));
+            }
+            return block;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.cff.cache.queue.metrics;
+
+import com.cff.cache.queue.compress.BlockCompressorRegistry;
+import com.cff.cache.queue.compress.CompressionStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将BlockCompressorRegistry的压缩统计发布到Micrometer，指标以compressor标签区分压缩器：
+ * <ul>
+ *     <li>cache.queue.compression.blocks：压缩和原样写入的数据条数，以result标签区分</li>
+ *     <li>cache.queue.compression.bytes：压缩前后的字节数，以stage标签区分</li>
+ *     <li>cache.queue.compression.time：压缩和解压的次数及耗时，以operation标签区分</li>
+ *     <li>cache.queue.compression.ratio：压缩率</li>
+ * </ul>
+ */
+public class BlockCompressionMetrics implements MeterBinder {
+
+    private static final String PREFIX = "cache.queue.compression.";
+
+    private final BlockCompressorRegistry compressorRegistry;
+
+    public BlockCompressionMetrics(BlockCompressorRegistry compressorRegistry) {
+        this.compressorRegistry = compressorRegistry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<String, CompressionStats> entry : compressorRegistry.getStats().entrySet()) {
+            bindStats(registry, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void bindStats(MeterRegistry registry, String compressor, CompressionStats stats) {
+        Tags tags = Tags.of("compressor", compressor);
+
+        FunctionCounter.builder(PREFIX + "blocks", stats, CompressionStats::getCompressedCount)
+                .description("Payloads written compressed")
+                .tags(tags).tag("result", "compressed")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "blocks", stats, CompressionStats::getSkippedCount)
+                .description("Payloads written uncompressed because they were too small or did not shrink")
+                .tags(tags).tag("result", "skipped")
+                .register(registry);
+
+        FunctionCounter.builder(PREFIX + "bytes", stats, CompressionStats::getOriginalBytes)
+                .description("Payload bytes before and after compression")
+                .baseUnit(BaseUnits.BYTES)
+                .tags(tags).tag("stage", "original")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "bytes", stats, CompressionStats::getCompressedBytes)
+                .description("Payload bytes before and after compression")
+                .baseUnit(BaseUnits.BYTES)
+                .tags(tags).tag("stage", "compressed")
+                .register(registry);
+
+        FunctionTimer.builder(PREFIX + "time", stats,
+                        s -> s.getCompressedCount() + s.getSkippedCount(), CompressionStats::getCompressNanos, TimeUnit.NANOSECONDS)
+                .description("CPU time spent compressing and decompressing payloads")
+                .tags(tags).tag("operation", "compress")
+                .register(registry);
+        FunctionTimer.builder(PREFIX + "time", stats,
+                        CompressionStats::getDecompressedCount, CompressionStats::getDecompressNanos, TimeUnit.NANOSECONDS)
+                .description("CPU time spent compressing and decompressing payloads")
+                .tags(tags).tag("operation", "decompress")
+                .register(registry);
+
+        Gauge.builder(PREFIX + "ratio", stats, CompressionStats::getCompressionRatio)
+                .description("Original bytes divided by compressed bytes")
+                .tags(tags)
+                .register(registry);
+    }
+}
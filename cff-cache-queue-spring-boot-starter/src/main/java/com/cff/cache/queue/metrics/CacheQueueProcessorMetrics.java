@@ -0,0 +1,33 @@
+package com.cff.cache.queue.metrics;
+
+import com.cff.cache.queue.processor.AbstractCacheQueueProcessor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Collection;
+
+/**
+ * 发布处理器已处理的块数，指标cache.queue.blocks.processed带有bizId标签，按时间求速率即为每秒处理的块数
+ */
+public class CacheQueueProcessorMetrics implements MeterBinder {
+
+    private final Collection<? extends AbstractCacheQueueProcessor<?>> processors;
+
+    public CacheQueueProcessorMetrics(Collection<? extends AbstractCacheQueueProcessor<?>> processors) {
+        this.processors = processors;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (AbstractCacheQueueProcessor<?> processor : processors) {
+            if (processor.getBizId() == null) {
+                continue;
+            }
+            FunctionCounter.builder("cache.queue.blocks.processed", processor, AbstractCacheQueueProcessor::getProcessedBlockCount)
+                    .description("Blocks consumed and marked by the processor")
+                    .tag("bizId", processor.getBizId())
+                    .register(registry);
+        }
+    }
+}
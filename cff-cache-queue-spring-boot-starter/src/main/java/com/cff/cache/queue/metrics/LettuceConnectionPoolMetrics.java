@@ -0,0 +1,120 @@
+package com.cff.cache.queue.metrics;
+
+import com.cff.cache.queue.lettuce.ConnectionPoolListener;
+import com.cff.cache.queue.lettuce.LettuceConnectionPool;
+import io.lettuce.core.api.StatefulConnection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将LettuceConnectionPool的统计信息发布到Micrometer
+ * <p>指标以pool标签区分普通命令连接池和阻塞命令连接池，开启分片时区分各分片的连接池：</p>
+ * <ul>
+ *     <li>cache.queue.pool.borrow.wait：借用连接的等待时间直方图</li>
+ *     <li>cache.queue.pool.borrow.timeouts：借用连接超时次数</li>
+ *     <li>cache.queue.pool.connections.active/idle：已借出和空闲的连接数</li>
+ *     <li>cache.queue.pool.waiters：正在等待借用连接的线程数</li>
+ *     <li>cache.queue.pool.connections.created/destroyed：创建和销毁的连接总数</li>
+ * </ul>
+ */
+public class LettuceConnectionPoolMetrics implements MeterBinder, ConnectionPoolListener {
+
+    private static final String PREFIX = "cache.queue.pool.";
+
+    private final List<LettuceConnectionPool> connectionPools;
+
+    private final Map<String, Timer> borrowTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> timeoutCounters = new ConcurrentHashMap<>();
+
+    public LettuceConnectionPoolMetrics(LettuceConnectionPool connectionPool) {
+        this(Collections.singletonList(connectionPool));
+    }
+
+    /**
+     * @param connectionPools 连接池，名称不能重复
+     */
+    public LettuceConnectionPoolMetrics(Collection<LettuceConnectionPool> connectionPools) {
+        this.connectionPools = new ArrayList<>(connectionPools);
+        for (LettuceConnectionPool connectionPool : this.connectionPools) {
+            connectionPool.addListener(this);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (LettuceConnectionPool connectionPool : connectionPools) {
+            bindPool(registry, connectionPool.getName(), connectionPool.getObjectPool());
+            if (connectionPool.getBlockingObjectPool() != null) {
+                bindPool(registry, connectionPool.getBlockingName(), connectionPool.getBlockingObjectPool());
+            }
+        }
+    }
+
+    private void bindPool(MeterRegistry registry, String poolName,
+                          GenericObjectPool<? extends StatefulConnection<String, byte[]>> pool) {
+        Tags tags = Tags.of("pool", poolName);
+
+        borrowTimers.put(poolName, Timer.builder(PREFIX + "borrow.wait")
+                .description("Time spent waiting to borrow a connection")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry));
+        timeoutCounters.put(poolName, Counter.builder(PREFIX + "borrow.timeouts")
+                .description("Borrow attempts that timed out on an exhausted pool")
+                .tags(tags)
+                .register(registry));
+
+        Gauge.builder(PREFIX + "connections.active", pool, GenericObjectPool::getNumActive)
+                .description("Connections currently borrowed")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(PREFIX + "connections.idle", pool, GenericObjectPool::getNumIdle)
+                .description("Idle connections in the pool")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(PREFIX + "waiters", pool, GenericObjectPool::getNumWaiters)
+                .description("Threads waiting to borrow a connection")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "connections.created", pool, GenericObjectPool::getCreatedCount)
+                .description("Connections created by the pool")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "connections.destroyed", pool, GenericObjectPool::getDestroyedCount)
+                .description("Connections destroyed by the pool")
+                .tags(tags)
+                .register(registry);
+    }
+
+    @Override
+    public void connectionBorrowed(String poolName, long waitNanos) {
+        Timer timer = borrowTimers.get(poolName);
+        if (timer != null) {
+            timer.record(waitNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void borrowTimedOut(String poolName, long waitNanos) {
+        Counter counter = timeoutCounters.get(poolName);
+        if (counter != null) {
+            counter.increment();
+        }
+        connectionBorrowed(poolName, waitNanos);
+    }
+}
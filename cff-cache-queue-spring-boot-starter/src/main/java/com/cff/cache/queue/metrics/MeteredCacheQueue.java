@@ -0,0 +1,187 @@
+package com.cff.cache.queue.metrics;
+
+import com.cff.cache.queue.CacheQueue;
+import com.cff.cache.queue.CacheQueueCodecListener;
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.model.Batch;
+import com.cff.cache.queue.model.Block;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 为任意CacheQueue实现统计每个操作的耗时、次数和失败次数的装饰器
+ * <p>指标均带有bizId标签：</p>
+ * <ul>
+ *     <li>cache.queue.operation：各操作的耗时，operation标签为方法名</li>
+ *     <li>cache.queue.operation.errors：各操作抛出CacheQueueException的次数</li>
+ *     <li>cache.queue.serialization / cache.queue.deserialization：序列化和反序列化的耗时，
+ *     操作耗时减去序列化耗时即为网络往返耗时</li>
+ *     <li>cache.queue.items.serialized / cache.queue.items.deserialized：序列化和反序列化的任务数</li>
+ *     <li>cache.queue.bytes.serialized / cache.queue.bytes.deserialized：每次序列化和反序列化的字节数</li>
+ * </ul>
+ * <p>序列化相关指标需要被装饰的实现回调{@link CacheQueueCodecListener}，
+ * 如{@link com.cff.cache.queue.lettuce.LettuceCacheQueue#setCodecListener}。</p>
+ */
+public class MeteredCacheQueue<E extends Serializable> implements CacheQueue<E>, CacheQueueCodecListener {
+
+    private static final String PREFIX = "cache.queue.";
+
+    private final CacheQueue<E> delegate;
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> operationTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, CodecMeters> serializationMeters = new ConcurrentHashMap<>();
+
+    private final Map<String, CodecMeters> deserializationMeters = new ConcurrentHashMap<>();
+
+    public MeteredCacheQueue(CacheQueue<E> delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+    }
+
+    public CacheQueue<E> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Batch<E> nextBatch(String bizId) throws CacheQueueException {
+        return record("nextBatch", bizId, () -> delegate.nextBatch(bizId));
+    }
+
+    @Override
+    public Batch<E> awaitBatch(String bizId, long timeoutMillis) throws CacheQueueException {
+        // 阻塞等待的时间取决于生产者，不计入操作耗时
+        return delegate.awaitBatch(bizId, timeoutMillis);
+    }
+
+    @Override
+    public Block<E> nextBlock(String bizId, String batchId) throws CacheQueueException {
+        return record("nextBlock", bizId, () -> delegate.nextBlock(bizId, batchId));
+    }
+
+    @Override
+    public void addBatch(String bizId, String batchId, Integer blockSize, List<E> list) throws CacheQueueException {
+        record("addBatch", bizId, () -> {
+            delegate.addBatch(bizId, batchId, blockSize, list);
+            return null;
+        });
+    }
+
+    @Override
+    public void addBatch(String bizId, String batchId, Integer blockSize, Iterator<E> iterator) throws CacheQueueException {
+        record("addBatch", bizId, () -> {
+            delegate.addBatch(bizId, batchId, blockSize, iterator);
+            return null;
+        });
+    }
+
+    @Override
+    public void addBlock(String bizId, String batchId, Integer blockIndex, List<E> list) throws CacheQueueException {
+        record("addBlock", bizId, () -> {
+            delegate.addBlock(bizId, batchId, blockIndex, list);
+            return null;
+        });
+    }
+
+    @Override
+    public Integer markBlockConsumed(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        return record("markBlockConsumed", bizId, () -> delegate.markBlockConsumed(bizId, batchId, blockIndex));
+    }
+
+    @Override
+    public Batch<E> getBatch(String bizId, String batchId) throws CacheQueueException {
+        return record("getBatch", bizId, () -> delegate.getBatch(bizId, batchId));
+    }
+
+    @Override
+    public Block<E> getBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        return record("getBlock", bizId, () -> delegate.getBlock(bizId, batchId, blockIndex));
+    }
+
+    @Override
+    public void removeBatch(String bizId, String batchId) throws CacheQueueException {
+        record("removeBatch", bizId, () -> {
+            delegate.removeBatch(bizId, batchId);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        record("removeBlock", bizId, () -> {
+            delegate.removeBlock(bizId, batchId, blockIndex);
+            return null;
+        });
+    }
+
+    @Override
+    public void itemsSerialized(String bizId, int items, long bytes, long nanos) {
+        serializationMeters.computeIfAbsent(bizId, id -> new CodecMeters(id, "serialization", "serialized"))
+                .record(items, bytes, nanos);
+    }
+
+    @Override
+    public void itemsDeserialized(String bizId, int items, long bytes, long nanos) {
+        deserializationMeters.computeIfAbsent(bizId, id -> new CodecMeters(id, "deserialization", "deserialized"))
+                .record(items, bytes, nanos);
+    }
+
+    private <T> T record(String operation, String bizId, Supplier<T> call) {
+        String key = operation + ":" + bizId;
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (CacheQueueException e) {
+            errorCounters.computeIfAbsent(key, k -> Counter.builder(PREFIX + "operation.errors")
+                    .tag("operation", operation)
+                    .tag("bizId", bizId)
+                    .register(registry)).increment();
+            throw e;
+        } finally {
+            operationTimers.computeIfAbsent(key, k -> Timer.builder(PREFIX + "operation")
+                    .tag("operation", operation)
+                    .tag("bizId", bizId)
+                    .publishPercentileHistogram()
+                    .register(registry)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 一个业务的序列化或反序列化指标
+     */
+    private class CodecMeters {
+
+        private final Timer timer;
+
+        private final Counter items;
+
+        private final DistributionSummary bytes;
+
+        CodecMeters(String bizId, String timerName, String direction) {
+            this.timer = Timer.builder(PREFIX + timerName).tag("bizId", bizId).register(registry);
+            this.items = Counter.builder(PREFIX + "items." + direction).tag("bizId", bizId).register(registry);
+            this.bytes = DistributionSummary.builder(PREFIX + "bytes." + direction).baseUnit("bytes")
+                    .tag("bizId", bizId).register(registry);
+        }
+
+        void record(int itemCount, long byteCount, long nanos) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            items.increment(itemCount);
+            bytes.record(byteCount);
+        }
+    }
+}
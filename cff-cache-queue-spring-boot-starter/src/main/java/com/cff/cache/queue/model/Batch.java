@@ -19,7 +19,7 @@ public class Batch<E extends Serializable> implements Serializable {
 
     private Queue<Block<E>> blocks;
     
-    private Integer consumedBlockCount = 0;
+    private volatile Integer consumedBlockCount = 0;
 
     public Batch(String bizId, String batchId, Integer blockSize, Integer blockCount) {
         this.bizId = bizId;
@@ -65,6 +65,16 @@ public class Batch<E extends Serializable> implements Serializable {
         this.consumedBlockCount = consumedBlockCount;
     }
     
+    /**
+     * 使用Redis返回的已消费块数更新计数，块乱序完成时计数只增不减
+     * @param consumedBlockCount 已消费块数
+     */
+    public synchronized void updateConsumedBlockCount(Integer consumedBlockCount) {
+        if (consumedBlockCount != null && consumedBlockCount > this.consumedBlockCount) {
+            this.consumedBlockCount = consumedBlockCount;
+        }
+    }
+
     public void incrementConsumedBlockCount() {
         this.consumedBlockCount++;
     }
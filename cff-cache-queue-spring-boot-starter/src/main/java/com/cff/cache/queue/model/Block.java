@@ -1,8 +1,14 @@
 package com.cff.cache.queue.model;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Block<E extends Serializable> implements Serializable {
 
@@ -16,6 +22,11 @@ public class Block<E extends Serializable> implements Serializable {
     
     private boolean consumed = false;
 
+    /**
+     * 分页读取的块在迭代时才读取任务，不分页时为null
+     */
+    private transient Iterator<E> pages;
+
     public Block(Integer blockIndex) {
         this.blockIndex = blockIndex;
         this.createTime = System.currentTimeMillis();
@@ -25,10 +36,45 @@ public class Block<E extends Serializable> implements Serializable {
         return blockIndex;
     }
 
+    /**
+     * 获取任务队列，分页读取的块会先读取剩余的全部任务
+     */
     public Queue<E> getQueue() {
+        if (pages != null) {
+            Iterator<E> remaining = pages;
+            pages = null;
+            remaining.forEachRemaining(this::addTask);
+        }
         return queue;
     }
 
+    /**
+     * 逐个读取块中的任务
+     * <p>分页读取的块按页从Redis读取，迭代到的任务才反序列化，内存中只保留当前页，只能迭代一次。</p>
+     */
+    public Iterator<E> iterator() {
+        if (pages != null) {
+            return pages;
+        }
+        return queue != null ? queue.iterator() : Collections.emptyIterator();
+    }
+
+    /**
+     * 以流的形式逐个读取块中的任务
+     * @see #iterator()
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false);
+    }
+
+    public boolean isPaged() {
+        return pages != null;
+    }
+
+    public void setPages(Iterator<E> pages) {
+        this.pages = pages;
+    }
+
     public void setQueue(Queue<E> queue) {
         this.queue = queue;
     }
@@ -0,0 +1,54 @@
+package com.cff.cache.queue.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 待写入的批次，保存添加批次时的参数
+ */
+public class PendingBatch<E extends Serializable> {
+
+    private final String bizId;
+
+    private final String batchId;
+
+    private final Integer blockSize;
+
+    private final List<E> list;
+
+    /**
+     * 已序列化的块，添加到写缓冲前序列化时不为空
+     */
+    private List<List<byte[]>> serializedBlocks;
+
+    public PendingBatch(String bizId, String batchId, Integer blockSize, List<E> list) {
+        this.bizId = bizId;
+        this.batchId = batchId;
+        this.blockSize = blockSize;
+        this.list = list;
+    }
+
+    public String getBizId() {
+        return bizId;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public Integer getBlockSize() {
+        return blockSize;
+    }
+
+    public List<E> getList() {
+        return list;
+    }
+
+    public List<List<byte[]>> getSerializedBlocks() {
+        return serializedBlocks;
+    }
+
+    public void setSerializedBlocks(List<List<byte[]>> serializedBlocks) {
+        this.serializedBlocks = serializedBlocks;
+    }
+}
@@ -8,8 +8,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public abstract class AbstractCacheQueueProcessor<E extends Serializable> implements CacheQueueProcessor<E> {
     
@@ -21,6 +33,18 @@ public abstract class AbstractCacheQueueProcessor<E extends Serializable> implem
     
     private int blockSize = 100; // 默认块大小
 
+    private int concurrency = 1; // 默认在调用线程中逐个消费块
+
+    private ExecutorService executor;
+
+    private int prefetchDepth = 0; // 默认不预取
+
+    private long awaitTimeoutMillis = 1000; // 监听时单次阻塞等待批次的最长时间
+
+    private volatile boolean running;
+
+    private final LongAdder processedBlockCount = new LongAdder();
+
     @Override
     public void init(List<E> list, int blockSize) {
         this.blockSize = blockSize;
@@ -38,20 +62,21 @@ public abstract class AbstractCacheQueueProcessor<E extends Serializable> implem
     @Override
     public void process() {
         try {
+            // 批次队列轮转时（开启租约），同一批次再次出现且期间没有消费到任何块即认为暂无可消费的块
+            Set<String> idleBatchIds = new HashSet<>();
             while (true) {
                 Batch<E> batch = cacheQueue.nextBatch(bizId);
                 if (batch == null) {
                     logger.info("No more batches to process for bizId: {}", bizId);
                     break;
                 }
+                if (!idleBatchIds.add(batch.getBatchId())) {
+                    logger.info("No more blocks to claim for bizId: {}", bizId);
+                    break;
+                }
                 
-                logger.info("Processing batch: {}", batch.getBatchId());
-                processBatch(batch);
-                
-                // 检查批次是否完成
-                if (batch.isCompleted()) {
-                    cacheQueue.removeBatch(bizId, batch.getBatchId());
-                    logger.info("Batch {} completed and removed", batch.getBatchId());
+                if (consumeBatch(batch)) {
+                    idleBatchIds.clear();
                 }
             }
         } catch (CacheQueueException e) {
@@ -59,11 +84,150 @@ public abstract class AbstractCacheQueueProcessor<E extends Serializable> implem
         }
     }
 
+    /**
+     * 持续监听批次队列，批次入队后立即消费，直到调用{@link #stop()}或线程被中断
+     * <p>使用阻塞命令等待批次，没有批次时不会轮询Redis。该方法阻塞调用线程，通常在独立线程中调用。</p>
+     * <p>单个批次消费时抛出的异常只记录日志，等待{@code awaitTimeoutMillis}后继续监听。</p>
+     */
+    public void listen() {
+        running = true;
+        logger.info("Listening for batches of bizId: {}", bizId);
+        try {
+            listenBatches();
+        } finally {
+            running = false;
+            logger.info("Stopped listening for batches of bizId: {}", bizId);
+        }
+    }
+
+    private void listenBatches() {
+        Set<String> idleBatchIds = new HashSet<>();
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                Batch<E> batch = cacheQueue.awaitBatch(bizId, awaitTimeoutMillis);
+                if (batch == null) {
+                    continue;
+                }
+                if (!idleBatchIds.add(batch.getBatchId())) {
+                    // 轮转的批次中暂无可领取的块（均已被其他消费者领取），稍后再试
+                    idleBatchIds.clear();
+                    Thread.sleep(awaitTimeoutMillis);
+                    continue;
+                }
+                if (consumeBatch(batch)) {
+                    idleBatchIds.clear();
+                }
+            } catch (RuntimeException e) {
+                // 包括缓存队列异常和消费任务时抛出的异常，不中断监听
+                logger.error("Error listening for batches of bizId: " + bizId, e);
+                try {
+                    Thread.sleep(awaitTimeoutMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 停止监听，当前批次消费完成且阻塞等待返回后{@link #listen()}退出
+     */
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 消费批次，批次完成后删除
+     * @return 是否消费了至少一个块
+     */
+    private boolean consumeBatch(Batch<E> batch) {
+        logger.info("Processing batch: {}", batch.getBatchId());
+        Integer consumedBlockCount = batch.getConsumedBlockCount();
+        processBatch(batch);
+
+        // 检查批次是否完成
+        if (batch.isCompleted()) {
+            cacheQueue.removeBatch(bizId, batch.getBatchId());
+            logger.info("Batch {} completed and removed", batch.getBatchId());
+        }
+        return !consumedBlockCount.equals(batch.getConsumedBlockCount());
+    }
+
     @Override
     public void processBatch(Batch<E> batch) {
+        BlockPrefetcher<E> prefetcher = null;
+        BlockSource<E> source = () -> cacheQueue.nextBlock(bizId, batch.getBatchId());
+        if (prefetchDepth > 0) {
+            // 后台预取块，领取和反序列化与块的消费并行进行
+            prefetcher = new BlockPrefetcher<>(cacheQueue, bizId, batch.getBatchId(), prefetchDepth);
+            prefetcher.start();
+            source = prefetcher;
+        }
+
+        try {
+            if (concurrency <= 1) {
+                consumeBlocks(batch, source);
+            } else {
+                consumeBlocksConcurrently(batch, source);
+            }
+        } finally {
+            if (prefetcher != null) {
+                prefetcher.stop();
+            }
+        }
+    }
+
+    /**
+     * 启动多个工作线程从同一批次中领取块并行消费，等待全部工作线程结束后返回
+     * <p>单个工作线程异常退出不影响其他工作线程</p>
+     */
+    private void consumeBlocksConcurrently(Batch<E> batch, BlockSource<E> source) {
+        ExecutorService workers = executor != null ? executor : newWorkerExecutor();
+        List<Future<?>> futures = new ArrayList<>(concurrency);
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                try {
+                    futures.add(workers.submit(() -> consumeBlocks(batch, source)));
+                } catch (RejectedExecutionException e) {
+                    logger.warn("Worker rejected for batch: {}, running with {} workers", batch.getBatchId(), futures.size());
+                    break;
+                }
+            }
+            if (futures.isEmpty()) {
+                consumeBlocks(batch, source);
+                return;
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    logger.error("Worker failed for batch: " + batch.getBatchId(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+        } finally {
+            if (workers != executor) {
+                workers.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 循环领取并消费批次中的块，直到块队列为空
+     */
+    private void consumeBlocks(Batch<E> batch, BlockSource<E> source) {
         try {
             while (true) {
-                Block<E> block = cacheQueue.nextBlock(bizId, batch.getBatchId());
+                Block<E> block = source.next();
                 if (block == null) {
                     logger.info("No more blocks to process for batch: {}", batch.getBatchId());
                     break;
@@ -77,9 +241,10 @@ public abstract class AbstractCacheQueueProcessor<E extends Serializable> implem
                 logger.info("Processing block: {} in batch: {}", block.getBlockIndex(), batch.getBatchId());
                 processBlock(block);
                 
-                // 标记块为已消费
-                cacheQueue.markBlockConsumed(bizId, batch.getBatchId(), block.getBlockIndex());
-                batch.incrementConsumedBlockCount();
+                // 标记块为已消费，使用Redis中的计数以兼容多个消费者同时消费同一批次
+                Integer consumedBlockCount = cacheQueue.markBlockConsumed(bizId, batch.getBatchId(), block.getBlockIndex());
+                batch.updateConsumedBlockCount(consumedBlockCount);
+                processedBlockCount.increment();
                 
                 logger.info("Block {} consumed, consumed count: {}", block.getBlockIndex(), batch.getConsumedBlockCount());
             }
@@ -88,6 +253,26 @@ public abstract class AbstractCacheQueueProcessor<E extends Serializable> implem
         }
     }
 
+    /**
+     * 创建有界的工作线程池，批次消费完成后关闭
+     */
+    private ExecutorService newWorkerExecutor() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(concurrency), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-queue-" + bizId + "-worker-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 本处理器已消费并标记完成的块数，按时间求速率即为每秒处理的块数
+     */
+    public long getProcessedBlockCount() {
+        return processedBlockCount.sum();
+    }
+
     @Override
     public void processBlock(Block<E> block) {
         consumeBlockTasks(block);
@@ -111,6 +296,52 @@ public abstract class AbstractCacheQueueProcessor<E extends Serializable> implem
     public void setBizId(String bizId) {
         this.bizId = bizId;
     }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * 设置同一批次内并行消费块的工作线程数，默认为1，即在调用线程中逐个消费
+     * @param concurrency 工作线程数
+     */
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * 设置预取缓冲区深度，大于0时由后台线程提前领取并反序列化块，默认为0，即不预取
+     * <p>消费异常退出时，缓冲区中已领取的块不会被消费</p>
+     * @param prefetchDepth 预取缓冲区深度
+     */
+    public void setPrefetchDepth(int prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    public long getAwaitTimeoutMillis() {
+        return awaitTimeoutMillis;
+    }
+
+    /**
+     * 设置监听时单次阻塞等待批次的最长时间，决定{@link #stop()}后最长多久退出，默认为1000毫秒
+     * <p>开启了命令超时（pool.timeoutMillis）时，该值需要小于命令超时时间</p>
+     * @param awaitTimeoutMillis 最长等待时间（毫秒）
+     */
+    public void setAwaitTimeoutMillis(long awaitTimeoutMillis) {
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
+    }
+
+    /**
+     * 设置并行消费使用的线程池，未设置时每个批次创建一个有界线程池并在消费完成后关闭
+     * @param executor 线程池，由调用方负责关闭
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
     
     protected String generateBatchId() {
         return "batch_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8);
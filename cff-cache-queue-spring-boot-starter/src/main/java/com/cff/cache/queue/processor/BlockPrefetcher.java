@@ -0,0 +1,99 @@
+package com.cff.cache.queue.processor;
+
+import com.cff.cache.queue.CacheQueue;
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.model.Block;
+
+import java.io.Serializable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 块预取器，在后台线程中领取并反序列化块，放入有界缓冲区供消费线程读取
+ * <p>缓冲区已满时预取线程阻塞等待，已领取但未消费的块最多为缓冲区深度加一个</p>
+ */
+class BlockPrefetcher<E extends Serializable> implements Runnable, BlockSource<E> {
+
+    private final CacheQueue<E> cacheQueue;
+
+    private final String bizId;
+
+    private final String batchId;
+
+    private final BlockingQueue<Block<E>> buffer;
+
+    /**
+     * 预取结束标记，消费线程读到后放回缓冲区，使其他消费线程也能结束
+     */
+    private final Block<E> end = new Block<>(-1);
+
+    private volatile CacheQueueException failure;
+
+    private volatile Thread thread;
+
+    BlockPrefetcher(CacheQueue<E> cacheQueue, String bizId, String batchId, int depth) {
+        this.cacheQueue = cacheQueue;
+        this.bizId = bizId;
+        this.batchId = batchId;
+        this.buffer = new ArrayBlockingQueue<>(depth);
+    }
+
+    void start() {
+        Thread prefetchThread = new Thread(this, "cache-queue-" + bizId + "-prefetch");
+        prefetchThread.setDaemon(true);
+        thread = prefetchThread;
+        prefetchThread.start();
+    }
+
+    /**
+     * 停止预取线程，消费线程全部退出后调用
+     */
+    void stop() {
+        Thread prefetchThread = thread;
+        if (prefetchThread != null) {
+            prefetchThread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Block<E> block = cacheQueue.nextBlock(bizId, batchId);
+                    if (block == null) {
+                        break;
+                    }
+                    buffer.put(block);
+                }
+            } catch (CacheQueueException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new CacheQueueException("Failed to prefetch block", e);
+            }
+            buffer.put(end);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Block<E> next() throws CacheQueueException {
+        Block<E> block;
+        try {
+            block = buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (block != end) {
+            return block;
+        }
+
+        buffer.offer(end);
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.cff.cache.queue.processor;
+
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.model.Block;
+
+import java.io.Serializable;
+
+/**
+ * 消费线程领取块的来源
+ */
+@FunctionalInterface
+interface BlockSource<E extends Serializable> {
+
+    /**
+     * 领取下一个块
+     * @return 下一个块，没有更多的块时返回null
+     * @throws CacheQueueException 缓存队列异常
+     */
+    Block<E> next() throws CacheQueueException;
+}
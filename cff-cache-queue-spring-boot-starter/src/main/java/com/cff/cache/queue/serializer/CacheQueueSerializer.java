@@ -0,0 +1,37 @@
+package com.cff.cache.queue.serializer;
+
+import java.io.IOException;
+
+/**
+ * 缓存队列任务序列化器
+ * <p>序列化结果由{@link CacheQueueSerializerRegistry}写入格式头，格式头中记录序列化器ID，
+ * 因此切换业务的序列化器后，已写入的块仍可按原格式解码。</p>
+ */
+public interface CacheQueueSerializer {
+
+    /**
+     * 获取序列化器ID，写入格式头用于解码，一经使用不可更改
+     * @return 序列化器ID
+     */
+    byte getId();
+
+    /**
+     * 获取序列化器名称，用于业务配置
+     * @return 序列化器名称
+     */
+    String getName();
+
+    /**
+     * 序列化对象
+     * @param obj 要序列化的对象
+     * @return 序列化后的字节数组
+     */
+    byte[] serialize(Object obj) throws IOException;
+
+    /**
+     * 反序列化对象
+     * @param data 序列化后的字节数组
+     * @return 反序列化后的对象
+     */
+    Object deserialize(byte[] data) throws IOException;
+}
@@ -0,0 +1,98 @@
+package com.cff.cache.queue.serializer;
+
+import com.cff.cache.queue.exception.CacheQueueException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 序列化器注册表，负责格式头的写入和识别
+ * <p>非默认序列化器的结果前写入两个字节的格式头：魔数 + 序列化器ID。
+ * JDK序列化器保持原有格式不写格式头，以JDK对象流自带的魔数识别，兼容历史数据和旧版本消费者。</p>
+ */
+public class CacheQueueSerializerRegistry {
+
+    /**
+     * 格式头魔数，与JDK对象流魔数(0xACED)不冲突
+     */
+    public static final byte HEADER_MAGIC = (byte) 0xCF;
+
+    private static final int HEADER_LENGTH = 2;
+
+    private final Map<Byte, CacheQueueSerializer> serializersById = new ConcurrentHashMap<>();
+
+    private final Map<String, CacheQueueSerializer> serializersByName = new ConcurrentHashMap<>();
+
+    private final CacheQueueSerializer defaultSerializer = new JdkCacheQueueSerializer();
+
+    public CacheQueueSerializerRegistry() {
+        register(defaultSerializer);
+    }
+
+    /**
+     * 注册序列化器
+     * @param serializer 序列化器
+     */
+    public void register(CacheQueueSerializer serializer) {
+        CacheQueueSerializer existing = serializersById.get(serializer.getId());
+        if (existing != null && !existing.getName().equals(serializer.getName())) {
+            throw new IllegalArgumentException("Serializer id " + serializer.getId() + " is already used by "
+                    + existing.getName());
+        }
+        serializersById.put(serializer.getId(), serializer);
+        serializersByName.put(serializer.getName(), serializer);
+    }
+
+    /**
+     * 按名称获取序列化器
+     * @param name 序列化器名称，为空时返回默认的JDK序列化器
+     * @return 序列化器
+     * @throws CacheQueueException 序列化器未注册
+     */
+    public CacheQueueSerializer getSerializer(String name) throws CacheQueueException {
+        if (name == null || name.isEmpty()) {
+            return defaultSerializer;
+        }
+        CacheQueueSerializer serializer = serializersByName.get(name);
+        if (serializer == null) {
+            throw new CacheQueueException("Serializer not registered: " + name);
+        }
+        return serializer;
+    }
+
+    /**
+     * 使用指定序列化器序列化对象并写入格式头
+     * @param serializer 序列化器
+     * @param obj 要序列化的对象
+     * @return 带格式头的字节数组
+     */
+    public byte[] serialize(CacheQueueSerializer serializer, Object obj) throws IOException {
+        byte[] data = serializer.serialize(obj);
+        if (serializer.getId() == JdkCacheQueueSerializer.ID) {
+            return data;
+        }
+        byte[] result = new byte[HEADER_LENGTH + data.length];
+        result[0] = HEADER_MAGIC;
+        result[1] = serializer.getId();
+        System.arraycopy(data, 0, result, HEADER_LENGTH, data.length);
+        return result;
+    }
+
+    /**
+     * 根据格式头选择序列化器反序列化对象
+     * @param data 带格式头的字节数组
+     * @return 反序列化后的对象
+     */
+    public Object deserialize(byte[] data) throws IOException {
+        if (data.length < HEADER_LENGTH || data[0] != HEADER_MAGIC) {
+            return defaultSerializer.deserialize(data);
+        }
+        CacheQueueSerializer serializer = serializersById.get(data[1]);
+        if (serializer == null) {
+            throw new IOException("Serializer not registered for id: " + data[1]);
+        }
+        return serializer.deserialize(Arrays.copyOfRange(data, HEADER_LENGTH, data.length));
+    }
+}
@@ -0,0 +1,81 @@
+package com.cff.cache.queue.serializer;
+
+import com.cff.common.util.JsonUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.ClassUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * 基于Jackson的序列化器，默认使用JSON格式，ObjectMapper配置与{@link JsonUtils}一致
+ * <p>任务类名随数据一起写入，反序列化时只接受实现了{@link Serializable}的类。</p>
+ */
+public class JacksonCacheQueueSerializer implements CacheQueueSerializer {
+
+    public static final byte JSON_ID = 1;
+
+    public static final String JSON_NAME = "jackson";
+
+    private final byte id;
+
+    private final String name;
+
+    private final ObjectMapper objectMapper;
+
+    public JacksonCacheQueueSerializer(byte id, String name, ObjectMapper objectMapper) {
+        this.id = id;
+        this.name = name;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 创建JSON格式的序列化器
+     */
+    public static JacksonCacheQueueSerializer json() {
+        return new JacksonCacheQueueSerializer(JSON_ID, JSON_NAME, JsonUtils.newObjectMapper(null));
+    }
+
+    @Override
+    public byte getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public byte[] serialize(Object obj) throws IOException {
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
+             DataOutputStream dos = new DataOutputStream(bos)) {
+            dos.writeUTF(obj.getClass().getName());
+            objectMapper.writeValue((OutputStream) dos, obj);
+            return bos.toByteArray();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] data) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data))) {
+            String className = dis.readUTF();
+            Class<?> type;
+            try {
+                type = ClassUtils.forName(className, null);
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+            if (!Serializable.class.isAssignableFrom(type)) {
+                throw new IOException("Class is not serializable: " + className);
+            }
+            return objectMapper.readValue((InputStream) dis, type);
+        }
+    }
+}
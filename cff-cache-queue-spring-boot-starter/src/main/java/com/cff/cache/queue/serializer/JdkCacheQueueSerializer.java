@@ -0,0 +1,39 @@
+package com.cff.cache.queue.serializer;
+
+import com.cff.cache.queue.util.SerializationUtil;
+
+import java.io.IOException;
+
+/**
+ * 基于JDK对象流的序列化器，默认序列化器
+ */
+public class JdkCacheQueueSerializer implements CacheQueueSerializer {
+
+    public static final byte ID = 0;
+
+    public static final String NAME = "jdk";
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] serialize(Object obj) throws IOException {
+        return SerializationUtil.serialize(obj);
+    }
+
+    @Override
+    public Object deserialize(byte[] data) throws IOException {
+        try {
+            return SerializationUtil.deserialize(data);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.cff.cache.queue.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.util.Pool;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于Kryo的紧凑二进制序列化器，需要引入kryo
+ * <p>注册的类以整数ID代替类名写入，注册顺序决定ID，生产者和消费者必须使用相同的注册列表；
+ * 未注册的类仍可序列化，但会写入完整类名。</p>
+ */
+public class KryoCacheQueueSerializer implements CacheQueueSerializer {
+
+    public static final byte ID = 3;
+
+    public static final String NAME = "kryo";
+
+    private final Pool<Kryo> kryoPool;
+
+    public KryoCacheQueueSerializer(List<Class<?>> registeredClasses) {
+        List<Class<?>> classes = registeredClasses != null ? new ArrayList<>(registeredClasses) : new ArrayList<>();
+        // Kryo实例非线程安全，通过对象池复用
+        this.kryoPool = new Pool<Kryo>(true, false) {
+            @Override
+            protected Kryo create() {
+                Kryo kryo = new Kryo();
+                kryo.setRegistrationRequired(false);
+                kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+                for (Class<?> type : classes) {
+                    kryo.register(type);
+                }
+                return kryo;
+            }
+        };
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] serialize(Object obj) throws IOException {
+        Kryo kryo = kryoPool.obtain();
+        try (Output output = new Output(256, -1)) {
+            kryo.writeClassAndObject(output, obj);
+            return output.toBytes();
+        } catch (KryoException e) {
+            throw new IOException(e);
+        } finally {
+            kryoPool.free(kryo);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] data) throws IOException {
+        Kryo kryo = kryoPool.obtain();
+        try (Input input = new Input(data)) {
+            return kryo.readClassAndObject(input);
+        } catch (KryoException e) {
+            throw new IOException(e);
+        } finally {
+            kryoPool.free(kryo);
+        }
+    }
+}
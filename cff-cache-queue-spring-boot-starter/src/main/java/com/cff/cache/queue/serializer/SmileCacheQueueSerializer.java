@@ -0,0 +1,18 @@
+package com.cff.cache.queue.serializer;
+
+import com.cff.common.util.JsonUtils;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * 基于Jackson Smile二进制格式的序列化器，需要引入jackson-dataformat-smile
+ */
+public class SmileCacheQueueSerializer extends JacksonCacheQueueSerializer {
+
+    public static final byte ID = 2;
+
+    public static final String NAME = "smile";
+
+    public SmileCacheQueueSerializer() {
+        super(ID, NAME, JsonUtils.newObjectMapper(new SmileFactory()));
+    }
+}
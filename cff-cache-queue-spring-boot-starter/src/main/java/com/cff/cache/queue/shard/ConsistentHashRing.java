@@ -0,0 +1,76 @@
+package com.cff.cache.queue.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 一致性哈希环，每个节点按名称在环上放置若干虚拟节点
+ * <p>虚拟节点的位置只取决于节点名称，增加节点时只有约1/N的键改变归属，其余键仍路由到原来的节点。
+ * 哈希算法与ketama相同：对"名称-序号"取MD5，每个摘要产生4个位置。</p>
+ * <p>节点在初始化后不再变化，读取不需要加锁。</p>
+ */
+public class ConsistentHashRing<T> {
+
+    /**
+     * 默认每个节点的虚拟节点数
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+
+    private final Map<String, T> nodes;
+
+    /**
+     * @param nodes 节点名称与节点，名称决定节点在环上的位置，应在扩容前后保持不变
+     * @param virtualNodes 每个节点的虚拟节点数，越多键的分布越均匀
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Consistent hash ring requires at least one node");
+        }
+        this.nodes = Collections.unmodifiableMap(new LinkedHashMap<>(nodes));
+        int replicas = Math.max(1, virtualNodes / 4);
+        for (Map.Entry<String, T> entry : nodes.entrySet()) {
+            for (int i = 0; i < replicas; i++) {
+                byte[] digest = md5(entry.getKey() + "-" + i);
+                for (int h = 0; h < 4; h++) {
+                    ring.putIfAbsent(position(digest, h), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取键所属的节点：键的哈希位置顺时针方向的第一个虚拟节点
+     */
+    public T get(String key) {
+        long hash = position(md5(key), 0);
+        SortedMap<Long, T> tail = ring.tailMap(hash);
+        return tail.isEmpty() ? ring.firstEntry().getValue() : tail.get(tail.firstKey());
+    }
+
+    public Map<String, T> getNodes() {
+        return nodes;
+    }
+
+    private static long position(byte[] digest, int index) {
+        return ((long) (digest[3 + index * 4] & 0xFF) << 24)
+                | ((long) (digest[2 + index * 4] & 0xFF) << 16)
+                | ((long) (digest[1 + index * 4] & 0xFF) << 8)
+                | (digest[index * 4] & 0xFF);
+    }
+
+    private static byte[] md5(String value) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
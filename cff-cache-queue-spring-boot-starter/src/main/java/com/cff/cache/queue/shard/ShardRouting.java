@@ -0,0 +1,17 @@
+package com.cff.cache.queue.shard;
+
+/**
+ * 分片路由方式
+ */
+public enum ShardRouting {
+
+    /**
+     * 按业务ID路由，同一业务的批次都在一个分片上，消费时只访问一个分片
+     */
+    BIZ_ID,
+
+    /**
+     * 按业务ID和批次ID路由，单个业务的批次分散到所有分片，消费时轮询各分片
+     */
+    BATCH_ID
+}
@@ -0,0 +1,330 @@
+package com.cff.cache.queue.shard;
+
+import com.cff.cache.queue.CacheQueue;
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.model.Batch;
+import com.cff.cache.queue.model.Block;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 客户端分片的CacheQueue，按一致性哈希将批次分布到多个相互独立的CacheQueue上
+ * <p>每个分片通常对应一个独立的Redis节点，同一批次的全部键都在一个分片上，Lua脚本不需要跨节点。
+ * 路由方式见{@link ShardRouting}，增加分片时只有约1/N的业务或批次改变归属。</p>
+ * <p>获取下一个批次时先访问归属分片，没有批次时再依次访问其余分片，扩容前写入的批次在原分片上仍能被消费。
+ * 不在归属分片上的批次记录所在分片，后续的块操作和删除直接访问该分片，批次删除或全部块消费完成时移除记录。
+ * 新批次总是写入归属分片，需要记录的只有分片变化前写入的批次。
+ * 没有记录的批次在归属分片上不存在时依次查找其余分片，例如由其他实例取出的批次。</p>
+ */
+public class ShardedCacheQueue<E extends Serializable> implements CacheQueue<E>, InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedCacheQueue.class);
+
+    private final ConsistentHashRing<CacheQueue<E>> ring;
+
+    private final List<CacheQueue<E>> shards;
+
+    private final ShardRouting routing;
+
+    /**
+     * 按批次路由时，等待时间不限的情况下轮流等待各分片的时间片（毫秒）
+     */
+    private static final long UNBOUNDED_SLICE_MILLIS = 1000;
+
+    /**
+     * 不在归属分片上的批次所在的分片，批次删除或消费完成时移除，不淘汰，否则后续操作会访问没有该批次的归属分片
+     */
+    private final Map<String, Location<E>> locations = new ConcurrentHashMap<>();
+
+    /**
+     * 按批次路由时轮询分片的起始位置
+     */
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * 分片使用的客户端和连接池，关闭时在分片之后关闭
+     */
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    public ShardedCacheQueue(Map<String, CacheQueue<E>> shards) {
+        this(shards, ShardRouting.BIZ_ID, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * @param shards 分片名称与分片，名称决定分片在哈希环上的位置
+     * @param routing 路由方式
+     * @param virtualNodes 每个分片的虚拟节点数
+     */
+    public ShardedCacheQueue(Map<String, CacheQueue<E>> shards, ShardRouting routing, int virtualNodes) {
+        this.ring = new ConsistentHashRing<>(shards, virtualNodes);
+        this.shards = new ArrayList<>(ring.getNodes().values());
+        this.routing = routing;
+    }
+
+    public Map<String, CacheQueue<E>> getShards() {
+        return ring.getNodes();
+    }
+
+    /**
+     * 获取记录了所在分片的批次数
+     */
+    public int getLocationCount() {
+        return locations.size();
+    }
+
+    /**
+     * 添加随分片一起关闭的资源，例如客户端和连接池
+     */
+    public void addResource(AutoCloseable resource) {
+        resources.add(resource);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        for (CacheQueue<E> shard : shards) {
+            if (shard instanceof InitializingBean) {
+                ((InitializingBean) shard).afterPropertiesSet();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (CacheQueue<E> shard : shards) {
+            if (shard instanceof DisposableBean) {
+                try {
+                    ((DisposableBean) shard).destroy();
+                } catch (Exception e) {
+                    logger.error("Destroying cache queue shard error", e);
+                }
+            }
+        }
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                logger.error("Closing cache queue shard resource error", e);
+            }
+        }
+    }
+
+    @Override
+    public Batch<E> nextBatch(String bizId) throws CacheQueueException {
+        int start = start(bizId);
+        for (int i = 0; i < shards.size(); i++) {
+            CacheQueue<E> shard = shards.get((start + i) % shards.size());
+            Batch<E> batch = shard.nextBatch(bizId);
+            if (batch != null) {
+                remember(bizId, batch, shard);
+                return batch;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Batch<E> awaitBatch(String bizId, long timeoutMillis) throws CacheQueueException {
+        Batch<E> batch = nextBatch(bizId);
+        if (batch != null || timeoutMillis < 0) {
+            return batch;
+        }
+
+        if (routing == ShardRouting.BIZ_ID) {
+            // 新批次只会写入归属分片，超时时间为0时一直等待
+            return ring.get(bizId).awaitBatch(bizId, timeoutMillis);
+        }
+
+        // 新批次可能写入任一分片，按时间片轮流等待各分片，超时时间为0时一直轮流等待
+        boolean unbounded = timeoutMillis == 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long sliceMillis = unbounded ? UNBOUNDED_SLICE_MILLIS : Math.max(1, timeoutMillis / shards.size());
+        int index = cursor.getAndIncrement();
+        while (true) {
+            long remainingMillis = unbounded ? sliceMillis : TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0 || Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            CacheQueue<E> shard = shards.get(Math.floorMod(index++, shards.size()));
+            batch = shard.awaitBatch(bizId, Math.min(sliceMillis, remainingMillis));
+            if (batch != null) {
+                remember(bizId, batch, shard);
+                return batch;
+            }
+        }
+    }
+
+    @Override
+    public Block<E> nextBlock(String bizId, String batchId) throws CacheQueueException {
+        Location<E> location = locations.get(location(bizId, batchId));
+        if (location != null) {
+            return location.shard.nextBlock(bizId, batchId);
+        }
+        CacheQueue<E> home = route(bizId, batchId);
+        Block<E> block = home.nextBlock(bizId, batchId);
+        if (block == null) {
+            // 归属分片上没有块时，批次可能在其他分片上
+            CacheQueue<E> shard = probe(bizId, batchId, home);
+            return shard != null ? shard.nextBlock(bizId, batchId) : null;
+        }
+        return block;
+    }
+
+    @Override
+    public void addBatch(String bizId, String batchId, Integer blockSize, List<E> list) throws CacheQueueException {
+        route(bizId, batchId).addBatch(bizId, batchId, blockSize, list);
+    }
+
+    @Override
+    public void addBatch(String bizId, String batchId, Integer blockSize, Iterator<E> iterator) throws CacheQueueException {
+        route(bizId, batchId).addBatch(bizId, batchId, blockSize, iterator);
+    }
+
+    @Override
+    public void addBlock(String bizId, String batchId, Integer blockIndex, List<E> list) throws CacheQueueException {
+        locate(bizId, batchId).addBlock(bizId, batchId, blockIndex, list);
+    }
+
+    @Override
+    public Integer markBlockConsumed(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        String key = location(bizId, batchId);
+        Location<E> location = locations.get(key);
+        CacheQueue<E> shard = location != null ? location.shard : route(bizId, batchId);
+        Integer consumedBlockCount = shard.markBlockConsumed(bizId, batchId, blockIndex);
+        if (location == null && (consumedBlockCount == null || consumedBlockCount == 0)) {
+            // 归属分片上没有该批次，在其他分片上查找
+            CacheQueue<E> other = probe(bizId, batchId, shard);
+            if (other == null) {
+                return consumedBlockCount;
+            }
+            location = locations.get(key);
+            consumedBlockCount = other.markBlockConsumed(bizId, batchId, blockIndex);
+        }
+        if (location != null && (consumedBlockCount == null || consumedBlockCount == 0
+                || consumedBlockCount >= location.blockCount)) {
+            // 批次已删除或全部块已消费，之后的操作查找不到时重新定位
+            locations.remove(key, location);
+        }
+        return consumedBlockCount;
+    }
+
+    @Override
+    public Batch<E> getBatch(String bizId, String batchId) throws CacheQueueException {
+        Location<E> location = locations.get(location(bizId, batchId));
+        if (location != null) {
+            return location.shard.getBatch(bizId, batchId);
+        }
+        CacheQueue<E> home = route(bizId, batchId);
+        Batch<E> batch = home.getBatch(bizId, batchId);
+        if (batch == null) {
+            CacheQueue<E> shard = probe(bizId, batchId, home);
+            return shard != null ? shard.getBatch(bizId, batchId) : null;
+        }
+        return batch;
+    }
+
+    @Override
+    public Block<E> getBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        return locate(bizId, batchId).getBlock(bizId, batchId, blockIndex);
+    }
+
+    @Override
+    public void removeBatch(String bizId, String batchId) throws CacheQueueException {
+        locate(bizId, batchId).removeBatch(bizId, batchId);
+        locations.remove(location(bizId, batchId));
+    }
+
+    @Override
+    public void removeBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        locate(bizId, batchId).removeBlock(bizId, batchId, blockIndex);
+    }
+
+    /**
+     * 记录不在归属分片上的批次所在的分片，在归属分片上的批次不需要记录
+     */
+    private void remember(String bizId, Batch<E> batch, CacheQueue<E> shard) {
+        if (shard != route(bizId, batch.getBatchId())) {
+            locations.put(location(bizId, batch.getBatchId()), new Location<>(shard, batch.getBlockCount()));
+        }
+    }
+
+    /**
+     * 在除已访问分片以外的分片上查找批次，找到时记录所在分片
+     * @return 批次所在的分片，全部分片上都没有该批次时返回null
+     */
+    private CacheQueue<E> probe(String bizId, String batchId, CacheQueue<E> visited) {
+        for (CacheQueue<E> shard : shards) {
+            if (shard == visited) {
+                continue;
+            }
+            Batch<E> batch = shard.getBatch(bizId, batchId);
+            if (batch != null) {
+                remember(bizId, batch, shard);
+                return shard;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取批次写入的分片
+     */
+    private CacheQueue<E> route(String bizId, String batchId) {
+        return routing == ShardRouting.BIZ_ID ? ring.get(bizId) : ring.get(location(bizId, batchId));
+    }
+
+    /**
+     * 获取批次所在的分片，没有记录且归属分片上没有该批次时查找其余分片，都没有时使用写入的分片
+     */
+    private CacheQueue<E> locate(String bizId, String batchId) {
+        Location<E> location = locations.get(location(bizId, batchId));
+        if (location != null) {
+            return location.shard;
+        }
+        CacheQueue<E> home = route(bizId, batchId);
+        if (home.getBatch(bizId, batchId) != null) {
+            return home;
+        }
+        CacheQueue<E> shard = probe(bizId, batchId, home);
+        return shard != null ? shard : home;
+    }
+
+    /**
+     * 获取下一个批次时首先访问的分片
+     */
+    private int start(String bizId) {
+        if (routing == ShardRouting.BIZ_ID) {
+            return shards.indexOf(ring.get(bizId));
+        }
+        return Math.floorMod(cursor.getAndIncrement(), shards.size());
+    }
+
+    private static String location(String bizId, String batchId) {
+        return bizId + ":" + batchId;
+    }
+
+    /**
+     * 批次所在的分片和批次的块数，全部块消费完成后移除
+     */
+    private static final class Location<E extends Serializable> {
+
+        private final CacheQueue<E> shard;
+
+        private final int blockCount;
+
+        private Location(CacheQueue<E> shard, Integer blockCount) {
+            this.shard = shard;
+            this.blockCount = blockCount != null ? blockCount : Integer.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.cff.cache.queue.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BlockBlobUtil {
+
+    /**
+     * 块二进制格式版本
+     */
+    private static final byte VERSION = 1;
+
+    /**
+     * 将块内已序列化的任务编码为一个二进制值
+     * <p>格式：版本(1字节) + 任务数(int) + 依次每个任务的长度(int)和内容</p>
+     * @param items 已序列化的任务列表
+     * @return 块二进制值
+     */
+    public static byte[] encode(List<byte[]> items) throws IOException {
+        int size = 5;
+        for (byte[] item : items) {
+            size += 4 + item.length;
+        }
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream(size);
+             DataOutputStream dos = new DataOutputStream(bos)) {
+            dos.writeByte(VERSION);
+            dos.writeInt(items.size());
+            for (byte[] item : items) {
+                dos.writeInt(item.length);
+                dos.write(item);
+            }
+            dos.flush();
+            return bos.toByteArray();
+        }
+    }
+
+    /**
+     * 将块二进制值解码为已序列化的任务列表
+     * @param blob 块二进制值
+     * @return 已序列化的任务列表
+     */
+    public static List<byte[]> decode(byte[] blob) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(blob))) {
+            byte version = dis.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported block blob version: " + version);
+            }
+            int count = dis.readInt();
+            List<byte[]> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] item = new byte[dis.readInt()];
+                dis.readFully(item);
+                items.add(item);
+            }
+            return items;
+        }
+    }
+}
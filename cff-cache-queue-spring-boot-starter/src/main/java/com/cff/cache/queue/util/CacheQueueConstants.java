@@ -12,6 +12,16 @@ public class CacheQueueConstants {
      */
     public static final String BATCHES_KEY_TEMPLATE = CACHE_QUEUE_PREFIX + "%s:batches";
     
+    /**
+     * 块租约集合键模板，成员为"块索引:批次ID"，分数为租约截止时间
+     */
+    public static final String LEASES_KEY_TEMPLATE = CACHE_QUEUE_PREFIX + "%s:leases";
+
+    /**
+     * 批次键前缀模板，拼接批次ID即为批次下各个键的公共前缀，供Lua脚本使用
+     */
+    public static final String BATCH_KEY_PREFIX_TEMPLATE = CACHE_QUEUE_PREFIX + "%s:batch:";
+
     /**
      * 批次信息键模板
      */
@@ -22,6 +32,21 @@ public class CacheQueueConstants {
      */
     public static final String BLOCKS_KEY_TEMPLATE = CACHE_QUEUE_PREFIX + "%s:batch:%s:blocks";
     
+    /**
+     * 块流键模板，Redis Streams实现中代替块队列
+     */
+    public static final String BLOCK_STREAM_KEY_TEMPLATE = CACHE_QUEUE_PREFIX + "%s:batch:%s:stream";
+
+    /**
+     * 块流的消费者组名
+     */
+    public static final String STREAM_GROUP = "cache_queue";
+
+    /**
+     * 块键前缀模板，拼接块索引和":info"、":data"即为块信息键、块数据键，供Lua脚本使用
+     */
+    public static final String BLOCK_KEY_PREFIX_TEMPLATE = CACHE_QUEUE_PREFIX + "%s:batch:%s:block:";
+
     /**
      * 块信息键模板
      */
@@ -32,6 +57,21 @@ public class CacheQueueConstants {
      */
     public static final String BLOCK_DATA_KEY_TEMPLATE = CACHE_QUEUE_PREFIX + "%s:batch:%s:block:%s:data";
     
+    /**
+     * 集群模式下的批次队列键模板，以业务ID作为哈希标签
+     */
+    public static final String CLUSTER_BATCHES_KEY_TEMPLATE = CACHE_QUEUE_PREFIX + "{%s}:batches";
+
+    /**
+     * 集群模式下的批次键模板，以"业务ID:批次ID"作为哈希标签，批次下的各个键以此为前缀，分配到同一个槽
+     */
+    public static final String CLUSTER_BATCH_KEY_TEMPLATE = CACHE_QUEUE_PREFIX + "{%s:%s}";
+
+    /**
+     * 集群模式下的批次键前缀模板，拼接批次ID和"}"即为批次键，供Lua脚本使用
+     */
+    public static final String CLUSTER_BATCH_KEY_PREFIX_TEMPLATE = CACHE_QUEUE_PREFIX + "{%s:";
+
     /**
      * 批次信息字段名
      */
@@ -46,4 +86,6 @@ public class CacheQueueConstants {
      */
     public static final String BLOCK_INDEX = "blockIndex";
     public static final String BLOCK_CONSUMED = "consumed";
+    public static final String BLOCK_LAYOUT = "layout";
+    public static final String BLOCK_ENCODING = "encoding";
 }
\ No newline at end of file
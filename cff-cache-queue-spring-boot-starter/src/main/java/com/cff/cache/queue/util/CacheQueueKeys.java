@@ -0,0 +1,95 @@
+package com.cff.cache.queue.util;
+
+/**
+ * 缓存队列的Redis键布局
+ * <p>单机布局使用{@link CacheQueueConstants}中的键模板。集群布局以"{业务ID:批次ID}"作为哈希标签，
+ * 同一批次的批次信息、块队列、块信息、块数据以及租约集合分配到同一个槽，Lua脚本和管道可以在一个节点上访问这些键；
+ * 不同批次分散到不同的槽，队列容量随集群节点数增长。</p>
+ */
+public class CacheQueueKeys {
+
+    /**
+     * 单机布局，与旧版本写入的键兼容
+     */
+    public static final CacheQueueKeys STANDALONE = new CacheQueueKeys(false);
+
+    /**
+     * Redis Cluster使用的哈希标签布局
+     */
+    public static final CacheQueueKeys CLUSTER = new CacheQueueKeys(true);
+
+    private final boolean hashTagged;
+
+    private CacheQueueKeys(boolean hashTagged) {
+        this.hashTagged = hashTagged;
+    }
+
+    public boolean isHashTagged() {
+        return hashTagged;
+    }
+
+    /**
+     * 批次队列键
+     */
+    public String batches(String bizId) {
+        return hashTagged ? String.format(CacheQueueConstants.CLUSTER_BATCHES_KEY_TEMPLATE, bizId)
+                : String.format(CacheQueueConstants.BATCHES_KEY_TEMPLATE, bizId);
+    }
+
+    /**
+     * 块租约集合键，单机布局下同一业务的批次共用一个租约集合，集群布局下每个批次一个租约集合
+     */
+    public String leases(String bizId, String batchId) {
+        return hashTagged ? batch(bizId, batchId) + ":leases"
+                : String.format(CacheQueueConstants.LEASES_KEY_TEMPLATE, bizId);
+    }
+
+    /**
+     * 批次键前缀，拼接批次ID和{@link #batchKeySuffix()}即为批次下各个键的公共前缀，供Lua脚本使用
+     */
+    public String batchKeyPrefix(String bizId) {
+        return hashTagged ? String.format(CacheQueueConstants.CLUSTER_BATCH_KEY_PREFIX_TEMPLATE, bizId)
+                : String.format(CacheQueueConstants.BATCH_KEY_PREFIX_TEMPLATE, bizId);
+    }
+
+    public String batchKeySuffix() {
+        return hashTagged ? "}" : "";
+    }
+
+    public String batchInfo(String bizId, String batchId) {
+        return hashTagged ? batch(bizId, batchId) + ":info"
+                : String.format(CacheQueueConstants.BATCH_INFO_KEY_TEMPLATE, bizId, batchId);
+    }
+
+    public String blocks(String bizId, String batchId) {
+        return hashTagged ? batch(bizId, batchId) + ":blocks"
+                : String.format(CacheQueueConstants.BLOCKS_KEY_TEMPLATE, bizId, batchId);
+    }
+
+    public String blockStream(String bizId, String batchId) {
+        return hashTagged ? batch(bizId, batchId) + ":stream"
+                : String.format(CacheQueueConstants.BLOCK_STREAM_KEY_TEMPLATE, bizId, batchId);
+    }
+
+    /**
+     * 块键前缀，拼接块索引和":info"、":data"即为块信息键、块数据键，供Lua脚本使用
+     */
+    public String blockKeyPrefix(String bizId, String batchId) {
+        return hashTagged ? batch(bizId, batchId) + ":block:"
+                : String.format(CacheQueueConstants.BLOCK_KEY_PREFIX_TEMPLATE, bizId, batchId);
+    }
+
+    public String blockInfo(String bizId, String batchId, Object blockIndex) {
+        return hashTagged ? blockKeyPrefix(bizId, batchId) + blockIndex + ":info"
+                : String.format(CacheQueueConstants.BLOCK_INFO_KEY_TEMPLATE, bizId, batchId, blockIndex);
+    }
+
+    public String blockData(String bizId, String batchId, Object blockIndex) {
+        return hashTagged ? blockKeyPrefix(bizId, batchId) + blockIndex + ":data"
+                : String.format(CacheQueueConstants.BLOCK_DATA_KEY_TEMPLATE, bizId, batchId, blockIndex);
+    }
+
+    private String batch(String bizId, String batchId) {
+        return String.format(CacheQueueConstants.CLUSTER_BATCH_KEY_TEMPLATE, bizId, batchId);
+    }
+}
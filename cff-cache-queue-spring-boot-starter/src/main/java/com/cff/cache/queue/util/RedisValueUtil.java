@@ -0,0 +1,33 @@
+package com.cff.cache.queue.util;
+
+import java.nio.charset.StandardCharsets;
+
+public class RedisValueUtil {
+
+    /**
+     * 将字符串编码为Redis值
+     * @param value 字符串
+     * @return UTF-8字节数组，字符串为null时返回null
+     */
+    public static byte[] asBytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * 将Redis值解码为字符串
+     * @param value UTF-8字节数组
+     * @return 字符串，值为null时返回null
+     */
+    public static String asString(byte[] value) {
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * 将整数编码为Redis值
+     * @param value 整数
+     * @return 十进制字符串的UTF-8字节数组
+     */
+    public static byte[] asBytes(long value) {
+        return asBytes(String.valueOf(value));
+    }
+}
@@ -0,0 +1,273 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.model.Batch;
+import com.cff.cache.queue.model.Block;
+import com.cff.cache.queue.processor.AbstractCacheQueueProcessor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AbstractCacheQueueProcessorTest {
+
+    @Test
+    public void testSerialProcessing() {
+        StubCacheQueue queue = new StubCacheQueue();
+        RecordingProcessor processor = newProcessor(queue, 1);
+
+        processor.init(tasks(95), 10);
+        processor.process();
+
+        assertEquals(95, processor.consumed.size());
+        assertEquals(10, queue.consumedBlockCount.get());
+        assertEquals(10, processor.getProcessedBlockCount());
+        assertEquals(1, queue.removedBatches.get());
+    }
+
+    @Test
+    public void testConcurrentProcessing() {
+        StubCacheQueue queue = new StubCacheQueue();
+        RecordingProcessor processor = newProcessor(queue, 4);
+
+        processor.init(tasks(1000), 10);
+        processor.process();
+
+        assertEquals(1000, processor.consumed.size());
+        assertTrue(processor.threads.size() > 1);
+        assertEquals(100, queue.consumedBlockCount.get());
+        assertEquals(1, queue.removedBatches.get());
+    }
+
+    @Test
+    public void testWorkerFailureIsIsolated() {
+        StubCacheQueue queue = new StubCacheQueue();
+        RecordingProcessor processor = newProcessor(queue, 4);
+        processor.failingBlockIndex = 3;
+
+        processor.init(tasks(100), 10);
+        processor.process();
+
+        // 失败的块未被标记为已消费，批次不会被删除，其余块仍被消费
+        assertEquals(9, queue.consumedBlockCount.get());
+        assertEquals(0, queue.removedBatches.get());
+    }
+
+    @Test
+    public void testPrefetchProcessing() {
+        StubCacheQueue queue = new StubCacheQueue();
+        RecordingProcessor processor = newProcessor(queue, 1);
+        processor.setPrefetchDepth(4);
+
+        processor.init(tasks(95), 10);
+        processor.process();
+
+        assertEquals(95, processor.consumed.size());
+        assertEquals(10, queue.consumedBlockCount.get());
+        assertEquals(1, queue.removedBatches.get());
+    }
+
+    @Test
+    public void testConcurrentPrefetchProcessing() {
+        StubCacheQueue queue = new StubCacheQueue();
+        RecordingProcessor processor = newProcessor(queue, 4);
+        processor.setPrefetchDepth(8);
+
+        processor.init(tasks(1000), 10);
+        processor.process();
+
+        assertEquals(1000, processor.consumed.size());
+        assertEquals(100, queue.consumedBlockCount.get());
+        assertEquals(1, queue.removedBatches.get());
+    }
+
+    @Test
+    public void testListen() throws InterruptedException {
+        StubCacheQueue queue = new StubCacheQueue();
+        RecordingProcessor processor = newProcessor(queue, 2);
+        processor.setAwaitTimeoutMillis(50);
+
+        Thread listener = new Thread(processor::listen);
+        listener.start();
+        processor.init(tasks(50), 10);
+        processor.init(tasks(30), 10);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queue.removedBatches.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        processor.stop();
+        listener.join(5000);
+
+        assertFalse(listener.isAlive());
+        assertFalse(processor.isRunning());
+        assertEquals(80, processor.consumed.size());
+        assertEquals(2, queue.removedBatches.get());
+    }
+
+    @Test
+    public void testListenSurvivesTaskFailure() throws InterruptedException {
+        StubCacheQueue queue = new StubCacheQueue();
+        RecordingProcessor processor = newProcessor(queue, 1);
+        processor.setAwaitTimeoutMillis(50);
+        processor.failingBlockIndex = 0;
+
+        Thread listener = new Thread(processor::listen);
+        listener.start();
+        processor.init(tasks(10), 10);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queue.batches.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // 消费任务抛出的异常不会结束监听
+        Thread.sleep(100);
+        assertTrue(listener.isAlive());
+        assertTrue(processor.isRunning());
+
+        processor.failingBlockIndex = -1;
+        processor.init(tasks(20), 10);
+        while (queue.removedBatches.get() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        processor.stop();
+        listener.join(5000);
+
+        assertFalse(listener.isAlive());
+        assertEquals(20, processor.consumed.size());
+        assertEquals(1, queue.removedBatches.get());
+    }
+
+    private RecordingProcessor newProcessor(StubCacheQueue queue, int concurrency) {
+        RecordingProcessor processor = new RecordingProcessor();
+        processor.setBizId("testBiz");
+        processor.setCacheQueue(queue);
+        processor.setConcurrency(concurrency);
+        return processor;
+    }
+
+    private List<String> tasks(int count) {
+        List<String> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add("Task-" + i);
+        }
+        return tasks;
+    }
+
+    private static class RecordingProcessor extends AbstractCacheQueueProcessor<String> {
+
+        private final Queue<String> consumed = new ConcurrentLinkedQueue<>();
+
+        private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        private volatile int failingBlockIndex = -1;
+
+        @Override
+        public void consumeBlockTasks(Block<String> block) {
+            if (block.getBlockIndex() == failingBlockIndex) {
+                throw new IllegalStateException("Block " + failingBlockIndex + " failed");
+            }
+            threads.add(Thread.currentThread().getName());
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            consumed.addAll(block.getQueue());
+        }
+    }
+
+    /**
+     * 内存实现，用于验证处理器的消费流程
+     */
+    private static class StubCacheQueue implements CacheQueue<String> {
+
+        private final BlockingQueue<String> batches = new LinkedBlockingQueue<>();
+
+        private final Map<String, Queue<Block<String>>> blocks = new ConcurrentHashMap<>();
+
+        private final Map<String, AtomicInteger> consumedBlockCounts = new ConcurrentHashMap<>();
+
+        private final Map<String, Integer> blockCounts = new ConcurrentHashMap<>();
+
+        private final AtomicInteger consumedBlockCount = new AtomicInteger();
+
+        private final AtomicInteger removedBatches = new AtomicInteger();
+
+        @Override
+        public Batch<String> nextBatch(String bizId) throws CacheQueueException {
+            String batchId = batches.poll();
+            return batchId != null ? getBatch(bizId, batchId) : null;
+        }
+
+        @Override
+        public Batch<String> awaitBatch(String bizId, long timeoutMillis) throws CacheQueueException {
+            try {
+                String batchId = batches.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+                return batchId != null ? getBatch(bizId, batchId) : null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        @Override
+        public Block<String> nextBlock(String bizId, String batchId) throws CacheQueueException {
+            Queue<Block<String>> batchBlocks = blocks.get(batchId);
+            return batchBlocks != null ? batchBlocks.poll() : null;
+        }
+
+        @Override
+        public void addBatch(String bizId, String batchId, Integer blockSize, List<String> list) throws CacheQueueException {
+            int blockCount = (int) Math.ceil((double) list.size() / blockSize);
+            for (int i = 0; i < blockCount; i++) {
+                addBlock(bizId, batchId, i, list.subList(i * blockSize, Math.min((i + 1) * blockSize, list.size())));
+            }
+            blockCounts.put(batchId, blockCount);
+            batches.add(batchId);
+        }
+
+        @Override
+        public void addBlock(String bizId, String batchId, Integer blockIndex, List<String> list) throws CacheQueueException {
+            Block<String> block = new Block<>(blockIndex);
+            list.forEach(block::addTask);
+            blocks.computeIfAbsent(batchId, id -> new ConcurrentLinkedQueue<>()).add(block);
+        }
+
+        @Override
+        public Integer markBlockConsumed(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+            consumedBlockCount.incrementAndGet();
+            return consumedBlockCounts.computeIfAbsent(batchId, id -> new AtomicInteger()).incrementAndGet();
+        }
+
+        @Override
+        public Batch<String> getBatch(String bizId, String batchId) throws CacheQueueException {
+            return new Batch<>(bizId, batchId, 10, blockCounts.get(batchId));
+        }
+
+        @Override
+        public Block<String> getBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+            return null;
+        }
+
+        @Override
+        public void removeBatch(String bizId, String batchId) throws CacheQueueException {
+            removedBatches.incrementAndGet();
+        }
+
+        @Override
+        public void removeBlock(String bizId, String batchId, Integer blockIndex) throws CacheQueueException {
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.autoconfigure.CacheQueueProperties;
+import com.cff.cache.queue.lettuce.BatchCollector;
+import com.cff.cache.queue.lettuce.LettuceCacheQueue;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BatchCollectorTest {
+
+    @Test
+    public void testDisabledCollectorRemovesInline() {
+        BatchCollector collector = new BatchCollector(mock(LettuceCacheQueue.class), new CacheQueueProperties());
+        collector.start();
+        assertFalse(collector.add("testBiz", "batch"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCollectsPendingBatchesOnStop() throws Exception {
+        LettuceCacheQueue<String> cacheQueue = mock(LettuceCacheQueue.class);
+        CacheQueueProperties.Collector config = new CacheQueueProperties.Collector();
+        config.setEnabled(true);
+        config.setIntervalMillis(60000);
+        CacheQueueProperties properties = new CacheQueueProperties();
+        properties.setConfig(new CacheQueueProperties.Config());
+        properties.getConfig().setCollector(config);
+
+        BatchCollector collector = new BatchCollector(cacheQueue, properties);
+        collector.start();
+        assertTrue(collector.add("testBiz", "batch"));
+        // 重复删除只记录一次
+        assertTrue(collector.add("testBiz", "batch"));
+        assertEquals(1, collector.getPendingBatchCount());
+
+        collector.stop();
+        verify(cacheQueue).removeBatches(eq("testBiz"), eq(Collections.singletonList("batch")));
+        verify(cacheQueue, times(1)).removeBatches(any(), any());
+        assertEquals(0, collector.getPendingBatchCount());
+        assertFalse(collector.add("testBiz", "batch"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStopWaitsForRunningCollect() throws Exception {
+        LettuceCacheQueue<String> cacheQueue = mock(LettuceCacheQueue.class);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            active.decrementAndGet();
+            return null;
+        }).when(cacheQueue).removeBatches(any(), any());
+
+        CacheQueueProperties.Collector config = new CacheQueueProperties.Collector();
+        config.setEnabled(true);
+        config.setIntervalMillis(10);
+        CacheQueueProperties properties = new CacheQueueProperties();
+        properties.setConfig(new CacheQueueProperties.Config());
+        properties.getConfig().setCollector(config);
+
+        BatchCollector collector = new BatchCollector(cacheQueue, properties);
+        collector.start();
+        assertTrue(collector.add("testBiz", "batch1"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        assertTrue(collector.add("testBiz", "batch2"));
+
+        Thread stopper = new Thread(collector::stop);
+        stopper.start();
+        Thread.sleep(100);
+        // 后台回收还没有结束，停止时等待
+        assertTrue(stopper.isAlive());
+        assertFalse(collector.add("testBiz", "batch3"));
+
+        release.countDown();
+        stopper.join(5000);
+        assertFalse(stopper.isAlive());
+        assertEquals(1, maxActive.get());
+        assertEquals(0, collector.getPendingBatchCount());
+        verify(cacheQueue).removeBatches(eq("testBiz"), eq(Collections.singletonList("batch2")));
+        verify(cacheQueue, never()).removeBatches(eq("testBiz"), eq(Collections.singletonList("batch3")));
+    }
+}
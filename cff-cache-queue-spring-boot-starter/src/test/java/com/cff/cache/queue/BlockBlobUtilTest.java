@@ -0,0 +1,42 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.util.BlockBlobUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockBlobUtilTest {
+
+    @Test
+    public void testEncodeAndDecode() throws IOException {
+        List<byte[]> items = new ArrayList<>();
+        items.add("Task 1".getBytes(StandardCharsets.UTF_8));
+        items.add(new byte[0]);
+        items.add("Task 3".getBytes(StandardCharsets.UTF_8));
+
+        List<byte[]> decoded = BlockBlobUtil.decode(BlockBlobUtil.encode(items));
+
+        assertEquals(items.size(), decoded.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertArrayEquals(items.get(i), decoded.get(i));
+        }
+    }
+
+    @Test
+    public void testEmptyBlock() throws IOException {
+        List<byte[]> decoded = BlockBlobUtil.decode(BlockBlobUtil.encode(Collections.emptyList()));
+
+        assertTrue(decoded.isEmpty());
+    }
+
+    @Test
+    public void testUnsupportedVersion() {
+        assertThrows(IOException.class, () -> BlockBlobUtil.decode(new byte[]{99, 0, 0, 0, 0}));
+    }
+}
@@ -0,0 +1,105 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.compress.BlockCompressor;
+import com.cff.cache.queue.compress.BlockCompressorRegistry;
+import com.cff.cache.queue.compress.CompressionStats;
+import com.cff.cache.queue.compress.Lz4BlockCompressor;
+import com.cff.cache.queue.metrics.BlockCompressionMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockCompressorRegistryTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        BlockCompressorRegistry registry = newRegistry();
+        byte[] data = repetitiveData(4096);
+
+        for (String name : new String[]{"deflate", "lz4"}) {
+            BlockCompressor compressor = registry.getCompressor(name);
+            byte[] compressed = registry.compress(compressor, -1, 1024, data);
+
+            assertEquals(BlockCompressorRegistry.HEADER_MAGIC, compressed[0], name);
+            assertTrue(compressed.length < data.length, name);
+            assertArrayEquals(data, registry.decompress(compressed), name);
+        }
+    }
+
+    @Test
+    public void testBelowMinSize() throws IOException {
+        BlockCompressorRegistry registry = newRegistry();
+        byte[] data = repetitiveData(512);
+
+        byte[] result = registry.compress(registry.getCompressor("deflate"), -1, 1024, data);
+
+        assertSame(data, result);
+        assertSame(data, registry.decompress(result));
+        assertEquals(1, registry.getStats().get("deflate").getSkippedCount());
+    }
+
+    @Test
+    public void testNoneCompressor() throws IOException {
+        BlockCompressorRegistry registry = newRegistry();
+
+        assertNull(registry.getCompressor("none"));
+        assertNull(registry.getCompressor(null));
+    }
+
+    @Test
+    public void testStats() throws IOException {
+        BlockCompressorRegistry registry = newRegistry();
+        byte[] compressed = registry.compress(registry.getCompressor("deflate"), 9, 0, repetitiveData(8192));
+        registry.decompress(compressed);
+
+        CompressionStats stats = registry.getStats().get("deflate");
+        assertEquals(1, stats.getCompressedCount());
+        assertEquals(1, stats.getDecompressedCount());
+        assertEquals(8192, stats.getOriginalBytes());
+        assertTrue(stats.getCompressionRatio() > 1.0d);
+    }
+
+    @Test
+    public void testMetrics() throws IOException {
+        BlockCompressorRegistry registry = newRegistry();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new BlockCompressionMetrics(registry).bindTo(meterRegistry);
+
+        BlockCompressor deflate = registry.getCompressor("deflate");
+        registry.decompress(registry.compress(deflate, 9, 0, repetitiveData(8192)));
+        registry.compress(deflate, 9, 1024, repetitiveData(512));
+
+        assertEquals(1, meterRegistry.get("cache.queue.compression.blocks")
+                .tags("compressor", "deflate", "result", "compressed").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.queue.compression.blocks")
+                .tags("compressor", "deflate", "result", "skipped").functionCounter().count());
+        assertEquals(8192, meterRegistry.get("cache.queue.compression.bytes")
+                .tags("compressor", "deflate", "stage", "original").functionCounter().count());
+        assertEquals(2, meterRegistry.get("cache.queue.compression.time")
+                .tags("compressor", "deflate", "operation", "compress").functionTimer().count());
+        assertEquals(1, meterRegistry.get("cache.queue.compression.time")
+                .tags("compressor", "deflate", "operation", "decompress").functionTimer().count());
+        assertTrue(meterRegistry.get("cache.queue.compression.ratio").tag("compressor", "deflate").gauge().value() > 1.0d);
+        // 未使用的压缩器同样发布指标
+        assertEquals(0, meterRegistry.get("cache.queue.compression.blocks")
+                .tags("compressor", "lz4", "result", "compressed").functionCounter().count());
+    }
+
+    private BlockCompressorRegistry newRegistry() {
+        BlockCompressorRegistry registry = new BlockCompressorRegistry();
+        registry.register(new Lz4BlockCompressor());
+        return registry;
+    }
+
+    private byte[] repetitiveData(int length) {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < length) {
+            builder.append("{\"taskId\":\"task-").append(builder.length() % 100).append("\",\"status\":\"NEW\"}");
+        }
+        return builder.substring(0, length).getBytes(StandardCharsets.UTF_8);
+    }
+}
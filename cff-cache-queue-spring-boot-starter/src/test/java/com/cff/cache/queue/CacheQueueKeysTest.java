@@ -0,0 +1,47 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.util.CacheQueueKeys;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheQueueKeysTest {
+
+    @Test
+    public void testStandaloneLayoutUnchanged() {
+        CacheQueueKeys keys = CacheQueueKeys.STANDALONE;
+        assertFalse(keys.isHashTagged());
+        assertEquals("cache_queue:order:batches", keys.batches("order"));
+        assertEquals("cache_queue:order:leases", keys.leases("order", "b1"));
+        assertEquals("cache_queue:order:batch:b1:info", keys.batchInfo("order", "b1"));
+        assertEquals("cache_queue:order:batch:b1:blocks", keys.blocks("order", "b1"));
+        assertEquals("cache_queue:order:batch:b1:block:3:info", keys.blockInfo("order", "b1", 3));
+        assertEquals("cache_queue:order:batch:b1:block:3:data", keys.blockData("order", "b1", 3));
+        assertEquals(keys.batchInfo("order", "b1"),
+                keys.batchKeyPrefix("order") + "b1" + keys.batchKeySuffix() + ":info");
+    }
+
+    @Test
+    public void testClusterLayoutSharesSlotPerBatch() {
+        CacheQueueKeys keys = CacheQueueKeys.CLUSTER;
+        assertTrue(keys.isHashTagged());
+        assertEquals("cache_queue:{order:b1}:info", keys.batchInfo("order", "b1"));
+
+        List<String> batchKeys = Arrays.asList(keys.batchInfo("order", "b1"), keys.blocks("order", "b1"),
+                keys.blockStream("order", "b1"), keys.leases("order", "b1"),
+                keys.blockInfo("order", "b1", 0), keys.blockData("order", "b1", 7));
+        int slot = SlotHash.getSlot(batchKeys.get(0));
+        for (String key : batchKeys) {
+            assertEquals(slot, SlotHash.getSlot(key), key);
+        }
+
+        // Lua脚本按前缀拼接出的键与客户端生成的键一致
+        assertEquals(keys.batchInfo("order", "b1"),
+                keys.batchKeyPrefix("order") + "b1" + keys.batchKeySuffix() + ":info");
+        assertEquals(keys.blockInfo("order", "b1", 5), keys.blockKeyPrefix("order", "b1") + 5 + ":info");
+    }
+}
@@ -0,0 +1,114 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.serializer.CacheQueueSerializer;
+import com.cff.cache.queue.serializer.CacheQueueSerializerRegistry;
+import com.cff.cache.queue.serializer.JacksonCacheQueueSerializer;
+import com.cff.cache.queue.serializer.KryoCacheQueueSerializer;
+import com.cff.cache.queue.serializer.SmileCacheQueueSerializer;
+import com.cff.cache.queue.util.SerializationUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheQueueSerializerTest {
+
+    @Test
+    public void testRoundTripForAllSerializers() throws IOException {
+        CacheQueueSerializerRegistry registry = newRegistry();
+        Task task = new Task("task-1", 42);
+
+        for (String name : new String[]{"jdk", "jackson", "smile", "kryo"}) {
+            CacheQueueSerializer serializer = registry.getSerializer(name);
+            byte[] data = registry.serialize(serializer, task);
+
+            assertEquals(task, registry.deserialize(data), name);
+        }
+    }
+
+    @Test
+    public void testDecodeAfterSerializerChange() throws IOException {
+        CacheQueueSerializerRegistry registry = newRegistry();
+        byte[] written = registry.serialize(registry.getSerializer("kryo"), new Task("task-2", 7));
+
+        // 格式头记录了写入时的序列化器，与当前业务配置无关
+        assertEquals(new Task("task-2", 7), registry.deserialize(written));
+    }
+
+    @Test
+    public void testLegacyJdkPayload() throws IOException {
+        CacheQueueSerializerRegistry registry = newRegistry();
+        byte[] legacy = SerializationUtil.serialize(new Task("task-3", 3));
+
+        assertArrayEquals(legacy, registry.serialize(registry.getSerializer(null), new Task("task-3", 3)));
+        assertEquals(new Task("task-3", 3), registry.deserialize(legacy));
+    }
+
+    @Test
+    public void testUnknownSerializer() {
+        assertThrows(CacheQueueException.class, () -> newRegistry().getSerializer("unknown"));
+    }
+
+    private CacheQueueSerializerRegistry newRegistry() {
+        CacheQueueSerializerRegistry registry = new CacheQueueSerializerRegistry();
+        registry.register(JacksonCacheQueueSerializer.json());
+        registry.register(new SmileCacheQueueSerializer());
+        registry.register(new KryoCacheQueueSerializer(Collections.singletonList(Task.class)));
+        return registry;
+    }
+
+    public static class Task implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String taskId;
+
+        private int priority;
+
+        public Task() {
+        }
+
+        public Task(String taskId, int priority) {
+            this.taskId = taskId;
+            this.priority = priority;
+        }
+
+        public String getTaskId() {
+            return taskId;
+        }
+
+        public void setTaskId(String taskId) {
+            this.taskId = taskId;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public void setPriority(int priority) {
+            this.priority = priority;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Task)) {
+                return false;
+            }
+            Task task = (Task) o;
+            return priority == task.priority && Objects.equals(taskId, task.taskId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(taskId, priority);
+        }
+    }
+}
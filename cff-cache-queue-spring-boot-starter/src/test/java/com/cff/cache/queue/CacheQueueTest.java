@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -67,5 +69,20 @@ public class CacheQueueTest {
         
         assertNotNull(block.getQueue());
         assertEquals(3, block.getQueue().size());
+        assertEquals(3, block.stream().count());
+    }
+
+    @Test
+    public void testPagedBlockIteration() {
+        Block<String> block = new Block<>(0);
+        block.setPages(Arrays.asList("Task 1", "Task 2", "Task 3").iterator());
+        assertTrue(block.isPaged());
+
+        Iterator<String> iterator = block.iterator();
+        assertEquals("Task 1", iterator.next());
+
+        // 获取任务队列时读取剩余的任务
+        assertEquals(Arrays.asList("Task 2", "Task 3"), new ArrayList<>(block.getQueue()));
+        assertFalse(block.isPaged());
     }
 }
\ No newline at end of file
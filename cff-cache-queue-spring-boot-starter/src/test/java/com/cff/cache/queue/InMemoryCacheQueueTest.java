@@ -0,0 +1,116 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.memory.InMemoryCacheQueue;
+import com.cff.cache.queue.model.Batch;
+import com.cff.cache.queue.model.Block;
+import com.cff.cache.queue.processor.AbstractCacheQueueProcessor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryCacheQueueTest {
+
+    @Test
+    public void testBatchAndBlockLifecycle() {
+        InMemoryCacheQueue<String> queue = new InMemoryCacheQueue<>();
+        queue.addBatch("testBiz", "batch", 10, tasks(25));
+
+        Batch<String> batch = queue.nextBatch("testBiz");
+        assertNotNull(batch);
+        assertEquals(3, batch.getBlockCount());
+        assertNull(queue.nextBatch("testBiz"));
+
+        Block<String> block = queue.nextBlock("testBiz", "batch");
+        assertEquals(0, block.getBlockIndex());
+        assertEquals(10, block.getQueue().size());
+        assertEquals(1, queue.markBlockConsumed("testBiz", "batch", 0));
+        // 重复标记不重复计数
+        assertEquals(1, queue.markBlockConsumed("testBiz", "batch", 0));
+        assertTrue(queue.getBlock("testBiz", "batch", 0).isConsumed());
+
+        assertEquals(5, queue.getBlock("testBiz", "batch", 2).getQueue().size());
+        queue.removeBatch("testBiz", "batch");
+        assertNull(queue.getBatch("testBiz", "batch"));
+        assertNull(queue.nextBlock("testBiz", "batch"));
+    }
+
+    @Test
+    public void testAddBatchFromStream() {
+        InMemoryCacheQueue<String> queue = new InMemoryCacheQueue<>();
+        queue.addBatch("testBiz", "batch", 10, IntStream.range(0, 25).mapToObj(i -> "Task-" + i));
+
+        Batch<String> batch = queue.nextBatch("testBiz");
+        assertEquals(3, batch.getBlockCount());
+        assertEquals(5, queue.getBlock("testBiz", "batch", 2).getQueue().size());
+    }
+
+    @Test
+    public void testAwaitBatchWakesUpOnAdd() throws InterruptedException {
+        InMemoryCacheQueue<String> queue = new InMemoryCacheQueue<>();
+        AtomicReference<Batch<String>> received = new AtomicReference<>();
+        Thread consumer = new Thread(() -> received.set(queue.awaitBatch("testBiz", 5000)));
+        consumer.start();
+
+        Thread.sleep(50);
+        queue.addBatch("testBiz", "batch", 10, tasks(5));
+        consumer.join(5000);
+
+        assertNotNull(received.get());
+        assertEquals("batch", received.get().getBatchId());
+        assertNull(queue.awaitBatch("testBiz", 10));
+    }
+
+    @Test
+    public void testAwaitBatchWithoutTimeout() throws InterruptedException {
+        InMemoryCacheQueue<String> queue = new InMemoryCacheQueue<>();
+        AtomicReference<Batch<String>> received = new AtomicReference<>();
+        // 超时时间为0时一直等待
+        Thread consumer = new Thread(() -> received.set(queue.awaitBatch("testBiz", 0)));
+        consumer.start();
+
+        Thread.sleep(100);
+        assertTrue(consumer.isAlive());
+        queue.addBatch("testBiz", "batch", 10, tasks(5));
+        consumer.join(5000);
+
+        assertFalse(consumer.isAlive());
+        assertEquals("batch", received.get().getBatchId());
+    }
+
+    @Test
+    public void testConcurrentProcessing() {
+        InMemoryCacheQueue<String> queue = new InMemoryCacheQueue<>();
+        Queue<String> consumed = new ConcurrentLinkedQueue<>();
+        AbstractCacheQueueProcessor<String> processor = new AbstractCacheQueueProcessor<String>() {
+            @Override
+            public void consumeBlockTasks(Block<String> block) {
+                consumed.addAll(block.getQueue());
+            }
+        };
+        processor.setBizId("testBiz");
+        processor.setCacheQueue(queue);
+        processor.setConcurrency(4);
+
+        processor.init(tasks(1000), 10);
+        processor.process();
+
+        assertEquals(1000, consumed.size());
+        assertEquals(100, processor.getProcessedBlockCount());
+        assertNull(queue.nextBatch("testBiz"));
+    }
+
+    private List<String> tasks(int count) {
+        List<String> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add("Task-" + i);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,90 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.lettuce.LettuceConnectionPool;
+import com.cff.cache.queue.metrics.LettuceConnectionPoolMetrics;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class LettuceConnectionPoolMetricsTest {
+
+    @Test
+    public void testBorrowMetrics() throws Exception {
+        GenericObjectPoolConfig<StatefulRedisConnection<String, byte[]>> config = new GenericObjectPoolConfig<>();
+        config.setMaxTotal(1);
+        config.setMaxWait(Duration.ofMillis(10));
+        GenericObjectPool<StatefulRedisConnection<String, byte[]>> pool = new GenericObjectPool<>(new MockConnectionFactory(), config);
+        LettuceConnectionPool connectionPool = new LettuceConnectionPool(pool);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new LettuceConnectionPoolMetrics(connectionPool).bindTo(registry);
+
+        StatefulConnection<String, byte[]> connection = connectionPool.getConnection();
+        assertEquals(1, registry.get("cache.queue.pool.connections.active").tag("pool", "cache-queue").gauge().value());
+        assertEquals(1, registry.get("cache.queue.pool.connections.created").functionCounter().count());
+
+        // 连接池已满，借用超时
+        assertThrows(NoSuchElementException.class, connectionPool::getConnection);
+        assertEquals(1, registry.get("cache.queue.pool.borrow.timeouts").counter().count());
+
+        connectionPool.close(connection);
+        assertEquals(0, registry.get("cache.queue.pool.connections.active").gauge().value());
+        assertEquals(1, registry.get("cache.queue.pool.connections.idle").gauge().value());
+        assertEquals(2, registry.get("cache.queue.pool.borrow.wait").timer().count());
+        pool.close();
+    }
+
+    @Test
+    public void testShardPoolMetrics() throws Exception {
+        List<LettuceConnectionPool> connectionPools = new ArrayList<>();
+        for (String shard : new String[]{"shard-0", "shard-1"}) {
+            LettuceConnectionPool connectionPool = new LettuceConnectionPool(
+                    new GenericObjectPool<>(new MockConnectionFactory(), new GenericObjectPoolConfig<>()));
+            connectionPool.setName(LettuceConnectionPool.DEFAULT_NAME + "-" + shard);
+            connectionPools.add(connectionPool);
+        }
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new LettuceConnectionPoolMetrics(connectionPools).bindTo(registry);
+
+        // 各分片的连接池按名称区分
+        StatefulConnection<String, byte[]> connection = connectionPools.get(1).getConnection();
+        assertEquals(0, registry.get("cache.queue.pool.connections.active").tag("pool", "cache-queue-shard-0").gauge().value());
+        assertEquals(1, registry.get("cache.queue.pool.connections.active").tag("pool", "cache-queue-shard-1").gauge().value());
+        assertEquals(1, registry.get("cache.queue.pool.borrow.wait").tag("pool", "cache-queue-shard-1").timer().count());
+        assertEquals(0, registry.get("cache.queue.pool.borrow.wait").tag("pool", "cache-queue-shard-0").timer().count());
+
+        connectionPools.get(1).close(connection);
+        for (LettuceConnectionPool connectionPool : connectionPools) {
+            connectionPool.getObjectPool().close();
+        }
+    }
+
+    private static class MockConnectionFactory extends BasePooledObjectFactory<StatefulRedisConnection<String, byte[]>> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public StatefulRedisConnection<String, byte[]> create() {
+            return mock(StatefulRedisConnection.class);
+        }
+
+        @Override
+        public PooledObject<StatefulRedisConnection<String, byte[]>> wrap(StatefulRedisConnection<String, byte[]> connection) {
+            return new DefaultPooledObject<>(connection);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.metrics.MeteredCacheQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MeteredCacheQueueTest {
+
+    @Test
+    public void testOperationMetrics() {
+        @SuppressWarnings("unchecked")
+        CacheQueue<String> delegate = mock(CacheQueue.class);
+        when(delegate.markBlockConsumed("testBiz", "batch", 0)).thenReturn(1);
+        when(delegate.getBatch("testBiz", "missing")).thenThrow(new CacheQueueException("Failed to get batch"));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MeteredCacheQueue<String> queue = new MeteredCacheQueue<>(delegate, registry);
+
+        assertEquals(1, queue.markBlockConsumed("testBiz", "batch", 0));
+        assertEquals(1, registry.get("cache.queue.operation")
+                .tags("operation", "markBlockConsumed", "bizId", "testBiz").timer().count());
+
+        assertThrows(CacheQueueException.class, () -> queue.getBatch("testBiz", "missing"));
+        assertEquals(1, registry.get("cache.queue.operation.errors")
+                .tags("operation", "getBatch", "bizId", "testBiz").counter().count());
+    }
+
+    @Test
+    public void testCodecMetrics() {
+        @SuppressWarnings("unchecked")
+        CacheQueue<String> delegate = mock(CacheQueue.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MeteredCacheQueue<String> queue = new MeteredCacheQueue<>(delegate, registry);
+
+        queue.itemsSerialized("testBiz", 10, 400, 1000);
+        queue.itemsSerialized("testBiz", 5, 200, 1000);
+        queue.itemsDeserialized("testBiz", 10, 400, 3000);
+
+        assertEquals(15, registry.get("cache.queue.items.serialized").tag("bizId", "testBiz").counter().count());
+        assertEquals(600, registry.get("cache.queue.bytes.serialized").summary().totalAmount());
+        assertEquals(10, registry.get("cache.queue.items.deserialized").counter().count());
+        assertEquals(1, registry.get("cache.queue.deserialization").timer().count());
+    }
+}
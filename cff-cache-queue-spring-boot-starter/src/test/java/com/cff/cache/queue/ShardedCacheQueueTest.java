@@ -0,0 +1,191 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.memory.InMemoryCacheQueue;
+import com.cff.cache.queue.model.Batch;
+import com.cff.cache.queue.shard.ConsistentHashRing;
+import com.cff.cache.queue.shard.ShardRouting;
+import com.cff.cache.queue.shard.ShardedCacheQueue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedCacheQueueTest {
+
+    @Test
+    public void testRingMovesFewKeysWhenNodeAdded() {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.put("shard-" + i, "shard-" + i);
+        }
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        nodes.put("shard-4", "shard-4");
+        ConsistentHashRing<String> grown = new ConsistentHashRing<>(nodes, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+
+        int keys = 10000;
+        int moved = 0;
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < keys; i++) {
+            String before = ring.get("biz-" + i);
+            String after = grown.get("biz-" + i);
+            counts.merge(before, 1, Integer::sum);
+            if (!before.equals(after)) {
+                // 只会迁移到新节点
+                assertEquals("shard-4", after);
+                moved++;
+            }
+        }
+        // 期望迁移1/5的键
+        assertTrue(moved > keys * 0.1 && moved < keys * 0.3, "moved " + moved);
+        for (int count : counts.values()) {
+            assertTrue(count > keys / 4 * 0.7 && count < keys / 4 * 1.3, "count " + count);
+        }
+    }
+
+    @Test
+    public void testRoutesBizToOneShard() {
+        Map<String, CacheQueue<String>> shards = shards(3);
+        ShardedCacheQueue<String> queue = new ShardedCacheQueue<>(shards);
+        queue.addBatch("testBiz", "batch-1", 10, tasks(15));
+        queue.addBatch("testBiz", "batch-2", 10, tasks(5));
+
+        int owners = 0;
+        for (CacheQueue<String> shard : shards.values()) {
+            if (shard.getBatch("testBiz", "batch-1") != null) {
+                assertNotNull(shard.getBatch("testBiz", "batch-2"));
+                owners++;
+            }
+        }
+        assertEquals(1, owners);
+
+        Batch<String> batch = queue.nextBatch("testBiz");
+        assertEquals("batch-1", batch.getBatchId());
+        assertEquals(10, queue.nextBlock("testBiz", "batch-1").getQueue().size());
+        assertEquals(1, queue.markBlockConsumed("testBiz", "batch-1", 0));
+        queue.removeBatch("testBiz", "batch-1");
+        assertNull(queue.getBatch("testBiz", "batch-1"));
+        assertEquals("batch-2", queue.nextBatch("testBiz").getBatchId());
+    }
+
+    @Test
+    public void testDrainsBatchesFromOtherShards() {
+        Map<String, CacheQueue<String>> shards = shards(3);
+        ShardedCacheQueue<String> queue = new ShardedCacheQueue<>(shards, ShardRouting.BATCH_ID, 160);
+
+        // 模拟扩容前写入非归属分片的批次
+        for (CacheQueue<String> shard : shards.values()) {
+            shard.addBatch("testBiz", "stale-" + shard.hashCode(), 10, tasks(3));
+        }
+
+        List<String> batchIds = new ArrayList<>();
+        Batch<String> batch;
+        while ((batch = queue.awaitBatch("testBiz", 10)) != null) {
+            batchIds.add(batch.getBatchId());
+            // 块操作访问批次所在的分片
+            assertEquals(3, queue.nextBlock("testBiz", batch.getBatchId()).getQueue().size());
+            queue.removeBatch("testBiz", batch.getBatchId());
+        }
+        assertEquals(3, batchIds.size());
+        for (CacheQueue<String> shard : shards.values()) {
+            assertNull(shard.nextBatch("testBiz"));
+        }
+        assertEquals(0, queue.getLocationCount());
+    }
+
+    @Test
+    public void testLocatesManyBatchesOnOtherShards() {
+        Map<String, CacheQueue<String>> shards = shards(3);
+        ShardedCacheQueue<String> queue = new ShardedCacheQueue<>(shards, ShardRouting.BATCH_ID, 160);
+
+        // 模拟扩容前全部写入第一个分片的批次，数量超过一万
+        CacheQueue<String> stale = shards.get("shard-0");
+        int count = 12000;
+        for (int i = 0; i < count; i++) {
+            stale.addBatch("testBiz", "batch-" + i, 10, tasks(20));
+        }
+        List<String> batchIds = new ArrayList<>();
+        Batch<String> batch;
+        while ((batch = queue.nextBatch("testBiz")) != null) {
+            batchIds.add(batch.getBatchId());
+        }
+        assertEquals(count, batchIds.size());
+        assertTrue(queue.getLocationCount() > count / 2);
+
+        // 取出全部批次后再消费，块操作仍然访问批次所在的分片
+        for (String batchId : batchIds) {
+            assertEquals(0, queue.nextBlock("testBiz", batchId).getBlockIndex());
+            assertEquals(1, queue.markBlockConsumed("testBiz", batchId, 0));
+        }
+        for (String batchId : batchIds) {
+            assertEquals(1, queue.nextBlock("testBiz", batchId).getBlockIndex());
+            assertEquals(2, queue.markBlockConsumed("testBiz", batchId, 1));
+            assertTrue(queue.getBatch("testBiz", batchId).isCompleted());
+            queue.removeBatch("testBiz", batchId);
+        }
+        assertNull(stale.getBatch("testBiz", "batch-0"));
+        assertNull(stale.getBatch("testBiz", "batch-" + (count - 1)));
+        assertEquals(0, queue.getLocationCount());
+    }
+
+    @Test
+    public void testProbesShardsForUnknownBatch() {
+        Map<String, CacheQueue<String>> shards = shards(3);
+        ShardedCacheQueue<String> queue = new ShardedCacheQueue<>(shards, ShardRouting.BATCH_ID, 160);
+        // 批次由其他实例取出，本实例没有位置记录
+        for (CacheQueue<String> shard : shards.values()) {
+            shard.addBatch("testBiz", "batch-" + shard.hashCode(), 10, tasks(10));
+        }
+
+        for (CacheQueue<String> shard : shards.values()) {
+            String batchId = "batch-" + shard.hashCode();
+            assertEquals(10, queue.nextBlock("testBiz", batchId).getQueue().size());
+            assertEquals(1, queue.markBlockConsumed("testBiz", batchId, 0));
+            assertEquals(1, queue.getBatch("testBiz", batchId).getConsumedBlockCount());
+            queue.removeBatch("testBiz", batchId);
+            assertNull(shard.getBatch("testBiz", batchId));
+        }
+        assertEquals(0, queue.getLocationCount());
+    }
+
+    @Test
+    public void testAwaitBatchWithoutTimeout() throws InterruptedException {
+        ShardedCacheQueue<String> queue = new ShardedCacheQueue<>(shards(3));
+        queue.addBatch("otherBiz", "batch", 10, tasks(3));
+        assertEquals("batch", queue.nextBatch("otherBiz").getBatchId());
+        // 在归属分片上的批次不记录位置
+        assertEquals(0, queue.getLocationCount());
+
+        AtomicReference<Batch<String>> received = new AtomicReference<>();
+        Thread consumer = new Thread(() -> received.set(queue.awaitBatch("testBiz", 0)));
+        consumer.start();
+        Thread.sleep(100);
+        // 超时时间为0时一直等待
+        assertTrue(consumer.isAlive());
+
+        queue.addBatch("testBiz", "batch", 10, tasks(3));
+        consumer.join(5000);
+        assertEquals("batch", received.get().getBatchId());
+    }
+
+    private static Map<String, CacheQueue<String>> shards(int count) {
+        Map<String, CacheQueue<String>> shards = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            shards.put("shard-" + i, new InMemoryCacheQueue<>());
+        }
+        return shards;
+    }
+
+    private static List<String> tasks(int count) {
+        List<String> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add("task-" + i);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,152 @@
+package com.cff.cache.queue;
+
+import com.cff.cache.queue.autoconfigure.CacheQueueProperties;
+import com.cff.cache.queue.buffer.WriteBehindCacheQueue;
+import com.cff.cache.queue.exception.CacheQueueException;
+import com.cff.cache.queue.exception.UncertainWriteException;
+import com.cff.cache.queue.memory.InMemoryCacheQueue;
+import io.lettuce.core.RedisConnectionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindCacheQueueTest {
+
+    private static final List<String> TASKS = Arrays.asList("a", "b", "c");
+
+    @Test
+    public void testFlushBySize() throws Exception {
+        InMemoryCacheQueue<String> delegate = new InMemoryCacheQueue<>();
+        WriteBehindCacheQueue<String> queue = new WriteBehindCacheQueue<>(delegate, writeBehind(10, 2, 60000));
+        queue.afterPropertiesSet();
+        try {
+            queue.addBatch("testBiz", "batch1", 10, TASKS);
+            assertNull(delegate.getBatch("testBiz", "batch1"));
+
+            // 达到flushSize后唤醒后台线程写入
+            queue.addBatch("testBiz", "batch2", 10, TASKS);
+            assertNotNull(delegate.awaitBatch("testBiz", 5000));
+            assertNotNull(delegate.awaitBatch("testBiz", 5000));
+        } finally {
+            queue.destroy();
+        }
+    }
+
+    @Test
+    public void testFlushByInterval() throws Exception {
+        InMemoryCacheQueue<String> delegate = new InMemoryCacheQueue<>();
+        WriteBehindCacheQueue<String> queue = new WriteBehindCacheQueue<>(delegate, writeBehind(10, 100, 20));
+        queue.afterPropertiesSet();
+        try {
+            queue.addBatch("testBiz", "batch", 10, TASKS);
+            assertEquals("batch", delegate.awaitBatch("testBiz", 5000).getBatchId());
+        } finally {
+            queue.destroy();
+        }
+    }
+
+    @Test
+    public void testBackpressureAndFlushOnShutdown() throws Exception {
+        AtomicBoolean available = new AtomicBoolean(false);
+        InMemoryCacheQueue<String> delegate = new InMemoryCacheQueue<String>() {
+            @Override
+            public void addBatch(String bizId, String batchId, Integer blockSize, List<String> list) {
+                if (!available.get()) {
+                    throw new CacheQueueException("Failed to add batch", new RedisConnectionException("Redis unavailable"));
+                }
+                super.addBatch(bizId, batchId, blockSize, list);
+            }
+        };
+        CacheQueueProperties.WriteBehind writeBehind = writeBehind(2, 1, 10);
+        writeBehind.setOfferTimeoutMillis(50);
+        WriteBehindCacheQueue<String> queue = new WriteBehindCacheQueue<>(delegate, writeBehind);
+        queue.afterPropertiesSet();
+
+        queue.addBatch("testBiz", "batch1", 10, TASKS);
+        queue.addBatch("testBiz", "batch2", 10, TASKS);
+        queue.addBatch("testBiz", "batch3", 10, TASKS);
+        // 写入失败的批次保留重试，缓冲区已满
+        assertThrows(CacheQueueException.class, () -> queue.addBatch("testBiz", "batch4", 10, TASKS));
+
+        available.set(true);
+        queue.destroy();
+        assertEquals(0, queue.getBufferedBatchCount());
+        assertEquals("batch1", delegate.nextBatch("testBiz").getBatchId());
+        assertEquals("batch2", delegate.nextBatch("testBiz").getBatchId());
+        assertEquals("batch3", delegate.nextBatch("testBiz").getBatchId());
+        assertThrows(CacheQueueException.class, () -> queue.addBatch("testBiz", "batch5", 10, TASKS));
+    }
+
+    @Test
+    public void testDropsBatchAfterMaxRetries() throws Exception {
+        InMemoryCacheQueue<String> delegate = new InMemoryCacheQueue<String>() {
+            @Override
+            public void addBatch(String bizId, String batchId, Integer blockSize, List<String> list) {
+                if ("poison".equals(batchId)) {
+                    throw new CacheQueueException("Failed to serialize item");
+                }
+                super.addBatch(bizId, batchId, blockSize, list);
+            }
+        };
+        CacheQueueProperties.WriteBehind writeBehind = writeBehind(10, 100, 60000);
+        writeBehind.setMaxRetries(2);
+        WriteBehindCacheQueue<String> queue = new WriteBehindCacheQueue<>(delegate, writeBehind);
+
+        queue.addBatch("testBiz", "poison", 10, TASKS);
+        queue.addBatch("testBiz", "batch", 10, TASKS);
+        assertThrows(CacheQueueException.class, queue::flush);
+        // 达到最大重试次数后丢弃无法写入的批次，后续批次正常写入
+        queue.flush();
+        assertEquals(1, queue.getDroppedBatchCount());
+        assertEquals("batch", delegate.nextBatch("testBiz").getBatchId());
+        assertNull(delegate.nextBatch("testBiz"));
+        queue.destroy();
+    }
+
+    @Test
+    public void testUncertainWriteNotRetried() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        InMemoryCacheQueue<String> delegate = new InMemoryCacheQueue<String>() {
+            @Override
+            public void addBatch(String bizId, String batchId, Integer blockSize, List<String> list) {
+                writes.incrementAndGet();
+                super.addBatch(bizId, batchId, blockSize, list);
+                if ("batch1".equals(batchId) && writes.get() == 1) {
+                    // 批次已写入，但等待结果超时
+                    throw new UncertainWriteException("Timed out waiting for pipelined commands", new TimeoutException());
+                }
+            }
+        };
+        WriteBehindCacheQueue<String> queue = new WriteBehindCacheQueue<>(delegate, writeBehind(10, 100, 60000));
+
+        queue.addBatch("testBiz", "batch1", 10, TASKS);
+        queue.addBatch("testBiz", "batch2", 10, TASKS);
+        assertThrows(UncertainWriteException.class, queue::flush);
+        // 结果未知的批次不重新写入，其余批次继续写入
+        assertEquals(2, writes.get());
+        assertEquals(1, queue.getUncertainBatchCount());
+        assertEquals(0, queue.getDroppedBatchCount());
+
+        queue.flush();
+        queue.destroy();
+        assertEquals(2, writes.get());
+        assertEquals("batch1", delegate.nextBatch("testBiz").getBatchId());
+        assertEquals("batch2", delegate.nextBatch("testBiz").getBatchId());
+        assertNull(delegate.nextBatch("testBiz"));
+    }
+
+    private CacheQueueProperties.WriteBehind writeBehind(int capacity, int flushSize, long flushIntervalMillis) {
+        CacheQueueProperties.WriteBehind writeBehind = new CacheQueueProperties.WriteBehind();
+        writeBehind.setEnabled(true);
+        writeBehind.setCapacity(capacity);
+        writeBehind.setFlushSize(flushSize);
+        writeBehind.setFlushIntervalMillis(flushIntervalMillis);
+        return writeBehind;
+    }
+}
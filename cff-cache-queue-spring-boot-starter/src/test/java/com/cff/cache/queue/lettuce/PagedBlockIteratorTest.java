@@ -0,0 +1,128 @@
+package com.cff.cache.queue.lettuce;
+
+import com.cff.cache.queue.model.Block;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PagedBlockIteratorTest {
+
+    private static final String BLOCK_DATA_KEY = "block:0:data";
+
+    @Test
+    public void testReadsRemainingPages() {
+        List<byte[]> data = items(7);
+        LettuceCacheQueue<String> cacheQueue = cacheQueue(data);
+
+        List<String> tasks = drain(iterator(cacheQueue, data, 3));
+        assertEquals(names(7), tasks);
+        // 第一页随领取脚本返回，之后按页读取，最后一页不足一页时结束
+        verify(cacheQueue).readPage(BLOCK_DATA_KEY, 3, 5);
+        verify(cacheQueue).readPage(BLOCK_DATA_KEY, 6, 8);
+        verify(cacheQueue, times(2)).readPage(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testBlockSizeIsMultipleOfPageSize() {
+        List<byte[]> data = items(6);
+        LettuceCacheQueue<String> cacheQueue = cacheQueue(data);
+
+        PagedBlockIterator<String> iterator = iterator(cacheQueue, data, 3);
+        assertEquals(names(6), drain(iterator));
+        // 整页结束时需要多读取一次空页
+        verify(cacheQueue).readPage(BLOCK_DATA_KEY, 3, 5);
+        verify(cacheQueue).readPage(BLOCK_DATA_KEY, 6, 8);
+        verify(cacheQueue, times(2)).readPage(anyString(), anyLong(), anyLong());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        verify(cacheQueue, times(2)).readPage(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testPageSizeOne() {
+        List<byte[]> data = items(3);
+        LettuceCacheQueue<String> cacheQueue = cacheQueue(data);
+
+        assertEquals(names(3), drain(iterator(cacheQueue, data, 1)));
+        verify(cacheQueue).readPage(BLOCK_DATA_KEY, 1, 1);
+        verify(cacheQueue).readPage(BLOCK_DATA_KEY, 2, 2);
+        verify(cacheQueue).readPage(BLOCK_DATA_KEY, 3, 3);
+        verify(cacheQueue, times(3)).readPage(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testFirstPageHoldsWholeBlock() {
+        List<byte[]> data = items(2);
+        LettuceCacheQueue<String> cacheQueue = cacheQueue(data);
+
+        // 块小于一页时领取脚本已返回全部任务
+        assertEquals(names(2), drain(iterator(cacheQueue, data, 5)));
+        verify(cacheQueue, never()).readPage(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testBlockQueueDrainsRemainingPages() {
+        List<byte[]> data = items(5);
+        LettuceCacheQueue<String> cacheQueue = cacheQueue(data);
+
+        Block<String> block = new Block<>(0);
+        block.setPages(iterator(cacheQueue, data, 2));
+        assertEquals("task-0", block.iterator().next());
+        assertEquals(names(5).subList(1, 5), new ArrayList<>(block.getQueue()));
+        // 每个任务只反序列化一次
+        verify(cacheQueue, times(5)).decodeItem(eq("testBiz"), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LettuceCacheQueue<String> cacheQueue(List<byte[]> data) {
+        LettuceCacheQueue<String> cacheQueue = mock(LettuceCacheQueue.class);
+        when(cacheQueue.readPage(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            // 与LRANGE相同，结束位置包含在内，超出范围时返回空列表
+            int start = (int) Math.min(invocation.<Long>getArgument(1), data.size());
+            int end = (int) Math.min(invocation.<Long>getArgument(2) + 1, data.size());
+            return new ArrayList<>(data.subList(start, end));
+        });
+        when(cacheQueue.decodeItem(anyString(), any(), any())).thenAnswer(invocation ->
+                new String((byte[]) invocation.getArgument(2), StandardCharsets.UTF_8));
+        return cacheQueue;
+    }
+
+    private static PagedBlockIterator<String> iterator(LettuceCacheQueue<String> cacheQueue, List<byte[]> data, int pageSize) {
+        List<byte[]> firstPage = data.subList(0, Math.min(pageSize, data.size()));
+        return new PagedBlockIterator<>(cacheQueue, "testBiz", BLOCK_DATA_KEY, PayloadEncoding.RAW, pageSize, firstPage);
+    }
+
+    private static List<String> drain(PagedBlockIterator<String> iterator) {
+        List<String> tasks = new ArrayList<>();
+        while (iterator.hasNext()) {
+            tasks.add(iterator.next());
+        }
+        return tasks;
+    }
+
+    private static List<byte[]> items(int count) {
+        List<byte[]> items = new ArrayList<>();
+        for (String name : names(count)) {
+            items.add(name.getBytes(StandardCharsets.UTF_8));
+        }
+        return items;
+    }
+
+    private static List<String> names(int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add("task-" + i);
+        }
+        return names;
+    }
+}
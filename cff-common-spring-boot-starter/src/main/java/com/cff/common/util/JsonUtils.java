@@ -1,6 +1,7 @@
 package com.cff.common.util;
 
 import com.cff.common.exception.JsonSerializeException;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -21,17 +22,25 @@ public final class JsonUtils {
     }
 
     // 创建ObjectMapper实例，用于JSON处理
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = newObjectMapper(null);
 
-    static {
+    /**
+     * 创建与本工具类配置一致的ObjectMapper
+     *
+     * @param jsonFactory 数据格式工厂，如Smile等二进制格式，为null时使用JSON
+     * @return 新的ObjectMapper实例
+     */
+    public static ObjectMapper newObjectMapper(JsonFactory jsonFactory) {
+        ObjectMapper mapper = new ObjectMapper(jsonFactory);
         // 在反序列化时忽略在json中存在但java对象不存在的属性
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         // 大小写脱敏
-        objectMapper.configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES, true);
+        mapper.configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES, true);
         // 接受空字符串序列化成数组
-        objectMapper.configure(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT, true);
+        mapper.configure(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT, true);
         // 接受空数组序列化成对象
-        objectMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+        mapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+        return mapper;
     }
 
     public static <T> T fromJson(String json, Class<T> type) throws IOException {